@@ -1,11 +1,12 @@
 package com.rit.sucy;
 
+import com.rit.sucy.service.EHiddenTag;
+import com.rit.sucy.service.ELevelCurve;
+import com.rit.sucy.service.ELoreCache;
 import com.rit.sucy.service.ENameParser;
-import com.rit.sucy.service.ERomanNumeral;
 import com.rit.sucy.service.MaterialClass;
 import org.apache.commons.lang.Validate;
 import org.bukkit.Bukkit;
-import org.bukkit.ChatColor;
 import org.bukkit.Material;
 import org.bukkit.block.Block;
 import org.bukkit.entity.LivingEntity;
@@ -20,6 +21,7 @@ import org.bukkit.inventory.meta.ItemMeta;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
@@ -53,6 +55,31 @@ public abstract class CustomEnchantment implements Comparable<CustomEnchantment>
      */
     protected boolean isEnabled;
 
+    /**
+     * Levels depending on the modified exp level, null for always level 1
+     */
+    protected ELevelCurve levelCurve;
+
+    /**
+     * Id given by EnchantmentAPI when registering, -1 if never registered
+     */
+    private int id = -1;
+
+    /**
+     * Effect hooks the class overrides, -1 until worked out
+     */
+    private int hookMask = -1;
+
+    /**
+     * Equipment slots the enchantment is active in
+     */
+    private int slotMask = EquipmentSlot.ALL;
+
+    /**
+     * Ticks between calls of applyPassiveEffect
+     */
+    private int passivePeriod = 20;
+
     /**
      * Creates a new custom enchantment with the given name that can be
      * enchanted onto the items using an enchantment table with names
@@ -147,12 +174,104 @@ public abstract class CustomEnchantment implements Comparable<CustomEnchantment>
         return enchantName;
     }
 
+    /**
+     * Retrieves the id of the enchantment. Ids are small numbers that stay the
+     * same across restarts, so they can be used as indices of arrays.
+     *
+     * @return the id or -1 if the enchantment has never been registered
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * Sets the id, done by EnchantmentAPI when registering
+     *
+     * @param id id of the enchantment
+     */
+    void setId(int id) {
+        this.id = id;
+    }
+
+    /**
+     * Retrieves the effect hooks this enchantment overrides as a mask of EffectHook bits.
+     * Enchantments only get called for these hooks.
+     *
+     * @return mask of the used hooks
+     */
+    public int getHookMask() {
+        if (hookMask == -1) hookMask = EffectHook.maskOf(this);
+        return hookMask;
+    }
+
+    /**
+     * Checks if this enchantment overrides the effect method of the hook
+     *
+     * @param hook hook to check
+     * @return     true if the enchantment does something for the hook
+     */
+    public boolean usesHook(EffectHook hook) {
+        return (getHookMask() & hook.getBit()) != 0;
+    }
+
+    /**
+     * Set the equipment slots this enchantment is active in. Its effects
+     * are only applied for items in these slots, e.g. only HAND for tools,
+     * so the other slots don't have to be read. Defaults to all slots.
+     *
+     * @param slots slots the enchantment is active in
+     */
+    public void setSlots(EquipmentSlot ... slots) {
+        Validate.notEmpty(slots, "An enchantment needs at least one slot!");
+        this.slotMask = EquipmentSlot.maskOf(slots);
+        EnchantmentAPI.enchantmentChanged();
+    }
+
+    /**
+     * Retrieves the equipment slots this enchantment is active in
+     *
+     * @return mask of EquipmentSlot bits
+     */
+    public int getSlotMask() {
+        return slotMask;
+    }
+
+    /**
+     * Checks if this enchantment is active in the equipment slot
+     *
+     * @param slot slot to check
+     * @return     true if effects apply for items in the slot
+     */
+    public boolean isActiveIn(EquipmentSlot slot) {
+        return slot.isIn(slotMask);
+    }
+
+    /**
+     * Set how often applyPassiveEffect is called while the enchantment is equipped
+     *
+     * @param ticks ticks between calls, 20 by default
+     */
+    public void setPassivePeriod(int ticks) {
+        Validate.isTrue(ticks > 0, "Passive period has to be positive!");
+        this.passivePeriod = ticks;
+    }
+
+    /**
+     * Retrieves how often applyPassiveEffect is called
+     *
+     * @return ticks between calls
+     */
+    public int getPassivePeriod() {
+        return passivePeriod;
+    }
+
     /**
      * Set if this enchantment is enabled or not
      */
     public void setEnabled (boolean enabled)
     {
         this.isEnabled = enabled;
+        EnchantmentAPI.enchantmentChanged();
     }
 
     /**
@@ -171,7 +290,40 @@ public abstract class CustomEnchantment implements Comparable<CustomEnchantment>
      * @return          returns the enchantment level
      */
     public int getEnchantmentLevel(int expLevel) {
-        return 1;
+        return levelCurve == null ? 1 : levelCurve.levelFor(expLevel);
+    }
+
+    /**
+     * Retrieves the level of enchantment for every modified exp level up to the maximum
+     *
+     * @param  maxExp highest modified exp level to include
+     * @return        the level at each exp level, the index being the exp level
+     */
+    public int[] getEnchantmentLevels(int maxExp) {
+        int[] levels = new int[maxExp + 1];
+        for (int exp = 0; exp <= maxExp; exp++) {
+            levels[exp] = getEnchantmentLevel(exp);
+        }
+        return levels;
+    }
+
+    /**
+     * Set the curve used by getEnchantmentLevel, for example
+     * ELevelCurve.fromThresholds(1, 10, 20) for levels 1 to 3
+     *
+     * @param levelCurve curve of levels or null to always use level 1
+     */
+    public void setLevelCurve(ELevelCurve levelCurve) {
+        this.levelCurve = levelCurve;
+    }
+
+    /**
+     * Get the curve used by getEnchantmentLevel
+     *
+     * @return curve of levels or null if it is always level 1
+     */
+    public ELevelCurve getLevelCurve() {
+        return levelCurve;
     }
 
     /**
@@ -182,6 +334,7 @@ public abstract class CustomEnchantment implements Comparable<CustomEnchantment>
     public void setNaturalMaterials(Material [] materials)
     {
         this.naturalItems = materials;
+        EnchantmentAPI.enchantmentChanged();
     }
 
     /**
@@ -210,6 +363,21 @@ public abstract class CustomEnchantment implements Comparable<CustomEnchantment>
     public void setWeight(int weight)
     {
         this.weight.put(MaterialClass.DEFAULT, weight);
+        EnchantmentAPI.enchantmentChanged();
+    }
+
+    /**
+     * Set weight for a specific MaterialClass
+     *
+     * @param materialClass MaterialClass to set the weight for
+     * @param weight        weight on items of that MaterialClass
+     */
+    public void setWeight(MaterialClass materialClass, int weight)
+    {
+        Validate.notNull(materialClass);
+        Validate.isTrue(weight >= 0, "Weight can't be negative!");
+        this.weight.put(materialClass, weight);
+        EnchantmentAPI.enchantmentChanged();
     }
 
     /**
@@ -252,6 +420,7 @@ public abstract class CustomEnchantment implements Comparable<CustomEnchantment>
      */
     public void setConflictingEnchants (String ... conflictingEnchants){
         this.conflictingEnchants = conflictingEnchants;
+        EnchantmentAPI.enchantmentChanged();
     }
 
     /**
@@ -301,7 +470,9 @@ public abstract class CustomEnchantment implements Comparable<CustomEnchantment>
     }
 
     /**
-     * Adds this enchantment onto the given item with the enchantment level provided
+     * Adds this enchantment onto the given item with the enchantment level provided.
+     * When the item is equipped by a player, call EEquipmentCache.invalidate
+     * afterwards so the player's effects pick up the change.
      *
      * @param  item         the item being enchanted
      * @param  enchantLevel the level of enchantment
@@ -314,19 +485,28 @@ public abstract class CustomEnchantment implements Comparable<CustomEnchantment>
         List<String> metaLore = meta.getLore() == null ? new ArrayList<String>() : meta.getLore();
 
         // Make sure the enchantment doesn't already exist on the item
-        for (Map.Entry<CustomEnchantment, Integer> entry : EnchantmentAPI.getEnchantments(item).entrySet()) {
-            if (entry.getKey().name().equals(name())) {
-                if (entry.getValue() < enchantLevel) {
-                    metaLore.remove(ChatColor.GRAY + name() + " " + ERomanNumeral.numeralOf(entry.getValue()));
+        for (int i = metaLore.size() - 1; i >= 0; i--) {
+            String line = metaLore.get(i);
+            CustomEnchantment enchantment = ELoreCache.enchantmentOf(line);
+            if (enchantment == null) continue;
+            int level = ELoreCache.levelOf(line);
+            if (level == 0) continue;
+            if (enchantment.name().equals(name())) {
+                if (level < enchantLevel) {
+                    metaLore.remove(i);
                 }
                 else {
                     return item;
                 }
             }
+            // Upgrade other enchantments to the current format while rewriting the lore
+            else if (EHiddenTag.isEnabled() && !EHiddenTag.isTagged(line)) {
+                metaLore.set(i, EHiddenTag.loreOf(enchantment, level));
+            }
         }
 
         // Add the enchantment
-        metaLore.add(0, ChatColor.GRAY + enchantName + " " + ERomanNumeral.numeralOf(enchantLevel));
+        metaLore.add(0, EHiddenTag.loreOf(this, enchantLevel));
         meta.setLore(metaLore);
         String name = ENameParser.getEnchantedName(item);
         if (name != null) meta.setDisplayName(name);
@@ -335,7 +515,9 @@ public abstract class CustomEnchantment implements Comparable<CustomEnchantment>
     }
 
     /**
-     * Removes this enchantment from the item if it exists
+     * Removes this enchantment from the item if it exists.
+     * When the item is equipped by a player, call EEquipmentCache.invalidate
+     * afterwards so the player's effects pick up the change.
      *
      * @param item item to remove this enchantment from
      * @return     the item without this enchantment
@@ -346,12 +528,17 @@ public abstract class CustomEnchantment implements Comparable<CustomEnchantment>
         if (!meta.hasLore()) return item;
         List<String> metaLore = meta.getLore();
 
-        // Make sure the enchantment doesn't already exist on the item
-        for (Map.Entry<CustomEnchantment, Integer> entry : EnchantmentAPI.getEnchantments(item).entrySet()) {
-            if (entry.getKey().name().equals(name())) {
-                metaLore.remove(ChatColor.GRAY + name() + " " + ERomanNumeral.numeralOf(entry.getValue()));
+        // Remove every line of this enchantment
+        Iterator<String> iterator = metaLore.iterator();
+        while (iterator.hasNext()) {
+            String line = iterator.next();
+            CustomEnchantment enchantment = ELoreCache.enchantmentOf(line);
+            if (enchantment != null && enchantment.name().equals(name()) && ELoreCache.levelOf(line) > 0) {
+                iterator.remove();
             }
         }
+        meta.setLore(metaLore);
+        item.setItemMeta(meta);
         return item;
     }
 
@@ -442,4 +629,13 @@ public abstract class CustomEnchantment implements Comparable<CustomEnchantment>
      * @param event        the event details
      */
     public void applyEntityEffect(Player player, int enchantLevel, PlayerInteractEntityEvent event) {}
+
+    /**
+     * Applies effects every passive period while the item is equipped,
+     * see setPassivePeriod. Calls are spread over the ticks of the period.
+     *
+     * @param player       player with the enchantment
+     * @param enchantLevel enchantment level
+     */
+    public void applyPassiveEffect(Player player, int enchantLevel) {}
 }
@@ -0,0 +1,107 @@
+package com.rit.sucy;
+
+import org.bukkit.block.Block;
+import org.bukkit.entity.LivingEntity;
+import org.bukkit.entity.Player;
+import org.bukkit.event.block.BlockEvent;
+import org.bukkit.event.entity.EntityDamageByEntityEvent;
+import org.bukkit.event.entity.EntityDamageEvent;
+import org.bukkit.event.player.PlayerInteractEntityEvent;
+import org.bukkit.event.player.PlayerInteractEvent;
+
+/**
+ * The effect methods of CustomEnchantment that enchantments can override.
+ * Enchantments only get called for the hooks they actually override.
+ */
+public enum EffectHook
+{
+    /**
+     * applyEffect, when attacking
+     */
+    OFFENSE ("applyEffect", LivingEntity.class, LivingEntity.class, int.class, EntityDamageByEntityEvent.class),
+    /**
+     * applyDefenseEffect, when taking damage
+     */
+    DEFENSE ("applyDefenseEffect", LivingEntity.class, LivingEntity.class, int.class, EntityDamageEvent.class),
+    /**
+     * applyToolEffect, when damaging or breaking blocks
+     */
+    TOOL ("applyToolEffect", Player.class, Block.class, int.class, BlockEvent.class),
+    /**
+     * applyMiscEffect, when clicking
+     */
+    MISC ("applyMiscEffect", Player.class, int.class, PlayerInteractEvent.class),
+    /**
+     * applyEquipEffect, when equipping an item
+     */
+    EQUIP ("applyEquipEffect", Player.class, int.class),
+    /**
+     * applyUnequipEffect, when unequipping an item
+     */
+    UNEQUIP ("applyUnequipEffect", Player.class, int.class),
+    /**
+     * applyEntityEffect, when interacting with an entity
+     */
+    ENTITY ("applyEntityEffect", Player.class, int.class, PlayerInteractEntityEvent.class),
+    /**
+     * applyPassiveEffect, every passive period while equipped
+     */
+    PASSIVE ("applyPassiveEffect", Player.class, int.class);
+
+    /**
+     * Name of the method in CustomEnchantment
+     */
+    private final String method;
+
+    /**
+     * Parameter types of the method
+     */
+    private final Class<?>[] parameters;
+
+    /**
+     * Constructor
+     *
+     * @param method     name of the method
+     * @param parameters parameter types of the method
+     */
+    private EffectHook(String method, Class<?> ... parameters)
+    {
+        this.method = method;
+        this.parameters = parameters;
+    }
+
+    /**
+     * Get the bit of this hook in hook masks
+     *
+     * @return bit of the hook
+     */
+    public int getBit()
+    {
+        return 1 << ordinal();
+    }
+
+    /**
+     * Work out which hooks the class of the enchantment overrides
+     *
+     * @param enchantment enchantment to check
+     * @return            mask of the overridden hooks
+     */
+    static int maskOf(CustomEnchantment enchantment)
+    {
+        int mask = 0;
+        for (EffectHook hook : values())
+        {
+            try
+            {
+                if (enchantment.getClass().getMethod(hook.method, hook.parameters).getDeclaringClass() != CustomEnchantment.class)
+                    mask |= hook.getBit();
+            }
+            catch (NoSuchMethodException e)
+            {
+                // Can't tell, so better call it
+                mask |= hook.getBit();
+            }
+        }
+        return mask;
+    }
+}
@@ -3,13 +3,16 @@ package com.rit.sucy;
 import com.rit.sucy.commands.Commander;
 import com.rit.sucy.config.RootConfig;
 import com.rit.sucy.enchanting.EEquip;
+import com.rit.sucy.enchanting.EEquipmentCache;
 import com.rit.sucy.enchanting.EListener;
 import com.rit.sucy.enchanting.VanillaData;
 import com.rit.sucy.enchanting.VanillaEnchantment;
+import com.rit.sucy.service.EHiddenTag;
+import com.rit.sucy.service.ELoreCache;
 import com.rit.sucy.service.ENameParser;
-import com.rit.sucy.service.ERomanNumeral;
+import com.rit.sucy.service.ENameTrie;
 import com.rit.sucy.service.IModule;
-import org.bukkit.ChatColor;
+import org.bukkit.configuration.file.YamlConfiguration;
 import org.bukkit.enchantments.Enchantment;
 import org.bukkit.entity.Player;
 import org.bukkit.event.HandlerList;
@@ -18,7 +21,10 @@ import org.bukkit.inventory.meta.ItemMeta;
 import org.bukkit.plugin.Plugin;
 import org.bukkit.plugin.java.JavaPlugin;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Contains methods to register and access custom enchantments
@@ -29,20 +35,65 @@ import java.util.*;
 public class EnchantmentAPI extends JavaPlugin{
 
     /**
-     * A table of the custom enchantments that are registered
+     * Ids given out to enchantment names, the index is the id.
+     * Saved to the data folder so they stay the same across restarts
      */
-    private static Hashtable<String, CustomEnchantment> enchantments = new Hashtable<String, CustomEnchantment>();
+    private static final List<String> idNames = new ArrayList<String>();
+
+    /**
+     * Current state of the registered enchantments. Readers use it without
+     * locking, writers build a new one while holding the registry lock.
+     */
+    private static volatile Registry registry = new Registry(new HashMap<String, CustomEnchantment>());
+
+    /**
+     * Listener passing events on to the enchantments, null while disabled
+     */
+    private static volatile EListener listener;
+
+    /**
+     * Counts changes to the registered enchantments and their settings
+     */
+    private static final AtomicLong generation = new AtomicLong();
+
+    /**
+     * Lock held while changing the registered enchantments
+     */
+    private static final Object registryLock = new Object();
+
+    /**
+     * File storing the ids
+     */
+    private static final String ID_FILE = "ids.yml";
+
+    /**
+     * Key of the id list in the id file
+     */
+    private static final String ID_NODE = "Enchantment Ids";
 
     /**
      * Registered modules.
      */
     private final Map<Class<? extends IModule>, IModule> modules = new HashMap<Class<? extends IModule>, IModule>();
 
+    /**
+     * How long the last reload took in milliseconds
+     */
+    private long reloadTime;
+
     /**
      * Prefix for all messages send to the Player/Console
      */
     private static String TAG = "[EnchantAPI]"; //just to make it a bit shorter
 
+    /**
+     * Loads the enchantment ids before other plugins can register enchantments
+     */
+    @Override
+    public void onLoad() {
+        loadIds();
+    }
+
     /**
      * Enables the plugin and calls for all custom enchantments from any plugins
      * that extend the EnchantPlugin class
@@ -60,9 +111,13 @@ public class EnchantmentAPI extends JavaPlugin{
      */
     @Override
     public void onDisable() {
+        saveIds();
+        if (listener != null) listener.close();
+        listener = null;
         HandlerList.unregisterAll(this);
-        enchantments.clear();
+        clearEnchantments();
         EEquip.clear();
+        EEquipmentCache.clear();
     }
 
     /**
@@ -71,9 +126,13 @@ public class EnchantmentAPI extends JavaPlugin{
      */
     public void reload()
     {
+        long start = System.nanoTime();
+        if (listener != null) listener.close();
+        listener = null;
         HandlerList.unregisterAll(this);
         EEquip.clear();
-        enchantments.clear();
+        EEquipmentCache.clear();
+        clearEnchantments();
 
         // Get custom enchantments from other plugins
         for (Plugin plugin : getServer().getPluginManager().getPlugins()) {
@@ -84,7 +143,7 @@ public class EnchantmentAPI extends JavaPlugin{
         loadVanillaEnchantments();
 
         // Listeners
-        new EListener(this);
+        listener = new EListener(this);
 
         for (Player player : getServer().getOnlinePlayers()) {
             EEquip.loadPlayer(player);
@@ -92,6 +151,81 @@ public class EnchantmentAPI extends JavaPlugin{
 
         //Important that the enchantments are loaded before the configuration is loaded
         getModuleForClass(RootConfig.class).reload();
+
+        saveIds();
+
+        reloadTime = (System.nanoTime() - start) / 1000000;
+        getLogger().info("Loaded " + getEnchantments().size() + " enchantments in " + reloadTime + " ms");
+    }
+
+    /**
+     * Gets how long the last reload took, including
+     * registering and configuring all enchantments
+     *
+     * @return duration in milliseconds
+     */
+    public long getReloadTime() {
+        return reloadTime;
+    }
+
+    /**
+     * Loads the ids given out in earlier runs
+     */
+    private void loadIds() {
+        YamlConfiguration config = YamlConfiguration.loadConfiguration(new File(getDataFolder(), ID_FILE));
+        List<String> names = config.getStringList(ID_NODE);
+        if (names == null) return;
+        synchronized (idNames) {
+            // Enchantments registered before loading get new ids after the saved ones
+            List<String> loaded = new ArrayList<String>();
+            for (String name : names) {
+                loaded.add(name.toUpperCase());
+            }
+            for (String name : idNames) {
+                if (!loaded.contains(name)) loaded.add(name);
+            }
+            idNames.clear();
+            idNames.addAll(loaded);
+        }
+        synchronized (registryLock) {
+            Map<String, CustomEnchantment> enchantments = registry.enchantments;
+            for (CustomEnchantment enchantment : enchantments.values()) {
+                enchantment.setId(idFor(enchantment.name().toUpperCase()));
+            }
+            publish(enchantments);
+        }
+    }
+
+    /**
+     * Saves the ids given out so far
+     */
+    private void saveIds() {
+        YamlConfiguration config = new YamlConfiguration();
+        synchronized (idNames) {
+            config.set(ID_NODE, new ArrayList<String>(idNames));
+        }
+        try {
+            config.save(new File(getDataFolder(), ID_FILE));
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Gets the id for the enchantment name, giving out the next one if it has none yet
+     *
+     * @param name upper case name of the enchantment
+     * @return     id of the name
+     */
+    private static int idFor(String name) {
+        synchronized (idNames) {
+            int id = idNames.indexOf(name);
+            if (id < 0) {
+                id = idNames.size();
+                idNames.add(name);
+            }
+            return id;
+        }
     }
 
     /**
@@ -113,7 +247,7 @@ public class EnchantmentAPI extends JavaPlugin{
      * @return true if it is registered, false otherwise
      */
     public static boolean isRegistered(String enchantmentName) {
-        return enchantments.containsKey(enchantmentName.toUpperCase());
+        return registry.enchantments.containsKey(enchantmentName.toUpperCase());
     }
 
     /**
@@ -123,25 +257,61 @@ public class EnchantmentAPI extends JavaPlugin{
      * @return      the enchantment with the given name, null if not found
      */
     public static CustomEnchantment getEnchantment(String name) {
-        return enchantments.get(name.toUpperCase());
+        return registry.enchantments.get(name.toUpperCase());
     }
 
     /**
-     * Retrieves the names of all enchantments that have been registered
+     * Retrieves the names of all enchantments that have been registered.
+     * The set doesn't change when enchantments are registered later on.
      *
-     * @return set of custom enchantment names
+     * @return unmodifiable set of custom enchantment names
      */
     public static Set<String> getEnchantmentNames() {
-        return enchantments.keySet();
+        return registry.enchantments.keySet();
     }
 
     /**
-     * Retrieves all custom enchantments
+     * Retrieves all custom enchantments.
+     * The collection doesn't change when enchantments are registered later on.
      *
-     * @return the list of all custom enchantments
+     * @return unmodifiable collection of all custom enchantments
      */
     public static Collection<CustomEnchantment> getEnchantments() {
-        return enchantments.values();
+        return registry.enchantments.values();
+    }
+
+    /**
+     * Gets the generation of the registered enchantments. It goes up every time
+     * an enchantment is registered or unregistered or a registered enchantment
+     * changes its settings, so anything derived from the registered enchantments
+     * can check it to know when to rebuild.
+     *
+     * @return current generation
+     */
+    public static long getRegistryGeneration() {
+        return generation.get();
+    }
+
+    /**
+     * Called by enchantments when their settings change
+     */
+    static void enchantmentChanged() {
+        generation.incrementAndGet();
+        EListener current = listener;
+        if (current != null) current.hooksChanged();
+    }
+
+    /**
+     * Lets the plugin know the equipment of a player changed without an
+     * event, e.g. after setting the item in hand from a command, so the
+     * cached enchantments and equip and passive effects get updated
+     *
+     * @param player player whose equipment changed
+     */
+    public static void equipmentChanged(Player player) {
+        EListener current = listener;
+        if (current != null) current.equipmentChanged(player);
+        else EEquipmentCache.invalidate(player);
     }
 
     /**
@@ -151,9 +321,15 @@ public class EnchantmentAPI extends JavaPlugin{
      * @return             true if it was registered, false otherwise
      */
     public static boolean registerCustomEnchantment(CustomEnchantment enchantment) {
-        if (enchantments.containsKey(enchantment.name().toUpperCase())) return false;
         if (!enchantment.isEnabled()) return false;
-        enchantments.put(enchantment.name().toUpperCase(), enchantment);
+        String name = enchantment.name().toUpperCase();
+        synchronized (registryLock) {
+            if (registry.enchantments.containsKey(name)) return false;
+            enchantment.setId(idFor(name));
+            Map<String, CustomEnchantment> enchantments = new HashMap<String, CustomEnchantment>(registry.enchantments);
+            enchantments.put(name, enchantment);
+            publish(enchantments);
+        }
         return true;
     }
 
@@ -164,11 +340,169 @@ public class EnchantmentAPI extends JavaPlugin{
      * @return                true if it was removed, false if it didn't exist
      */
     public static boolean unregisterCustomEnchantment(String enchantmentName) {
-        if (enchantments.containsKey(enchantmentName.toUpperCase())) {
-            enchantments.remove(enchantmentName.toUpperCase());
-            return true;
+        String name = enchantmentName.toUpperCase();
+        synchronized (registryLock) {
+            if (!registry.enchantments.containsKey(name)) return false;
+            Map<String, CustomEnchantment> enchantments = new HashMap<String, CustomEnchantment>(registry.enchantments);
+            enchantments.remove(name);
+            publish(enchantments);
+        }
+        return true;
+    }
+
+    /**
+     * Unregisters all enchantments
+     */
+    private static void clearEnchantments() {
+        synchronized (registryLock) {
+            publish(new HashMap<String, CustomEnchantment>());
+        }
+    }
+
+    /**
+     * Retrieves the registered enchantment with the given id
+     *
+     * @param id id of the enchantment, see CustomEnchantment.getId()
+     * @return   the enchantment or null if none with that id is registered
+     */
+    public static CustomEnchantment getById(int id) {
+        CustomEnchantment[] enchantments = registry.byId;
+        return id >= 0 && id < enchantments.length ? enchantments[id] : null;
+    }
+
+    /**
+     * Gets the amount of ids given out so far. Every id is lower than this,
+     * so it can be used as the size of arrays indexed by id.
+     *
+     * @return amount of ids
+     */
+    public static int getIdCount() {
+        synchronized (idNames) {
+            return idNames.size();
+        }
+    }
+
+    /**
+     * Checks if any registered enchantment uses the effect hook
+     *
+     * @param hook hook to check
+     * @return     true if at least one enchantment overrides its effect method
+     */
+    public static boolean isHookUsed(EffectHook hook) {
+        return registry.byHook[hook.ordinal()].length > 0;
+    }
+
+    /**
+     * Gets the mask of all effect hooks used by registered enchantments
+     *
+     * @return mask of EffectHook bits
+     */
+    public static int getHookMask() {
+        return registry.hookMask;
+    }
+
+    /**
+     * Retrieves the registered enchantments that use the effect hook
+     *
+     * @param hook hook to get the enchantments for
+     * @return     unmodifiable list of enchantments overriding its effect method
+     */
+    public static List<CustomEnchantment> getHookEnchantments(EffectHook hook) {
+        return Collections.unmodifiableList(Arrays.asList(registry.byHook[hook.ordinal()]));
+    }
+
+    /**
+     * Finds the registered enchantment named at the start of a lore line
+     *
+     * @param lore    lore line to check
+     * @param nameEnd index right after the name, see ENameParser.levelStart
+     * @return        the enchantment or null if the name isn't registered
+     */
+    public static CustomEnchantment matchEnchantment(String lore, int nameEnd) {
+        return registry.nameTrie.match(lore, nameEnd);
+    }
+
+    /**
+     * Finds the registered enchantment stored in the hidden tag of a lore line
+     *
+     * @param lore lore line to check
+     * @return     the enchantment or null if the line has no tag of a registered enchantment
+     */
+    public static CustomEnchantment matchHiddenTag(String lore) {
+        return registry.hiddenTags.match(lore);
+    }
+
+    /**
+     * Makes the enchantments the registered ones, replacing the current registry.
+     * Has to be called while holding the registry lock.
+     *
+     * @param enchantments enchantments by upper case name, not modified afterwards
+     */
+    private static void publish(Map<String, CustomEnchantment> enchantments) {
+        registry = new Registry(enchantments);
+        generation.incrementAndGet();
+        EListener current = listener;
+        if (current != null) current.hooksChanged();
+    }
+
+    /**
+     * Immutable state of the registered enchantments along with
+     * everything derived from them for reading lore
+     */
+    private static final class Registry {
+
+        /**
+         * Registered enchantments by upper case name
+         */
+        final Map<String, CustomEnchantment> enchantments;
+
+        /**
+         * Trie over the names of the enchantments
+         */
+        final ENameTrie nameTrie;
+
+        /**
+         * Index of the ids used in hidden lore tags
+         */
+        final EHiddenTag hiddenTags;
+
+        /**
+         * Enchantments by their id
+         */
+        final CustomEnchantment[] byId;
+
+        /**
+         * Enchantments using each effect hook, by hook ordinal
+         */
+        final CustomEnchantment[][] byHook;
+
+        /**
+         * Hooks used by any of the enchantments
+         */
+        final int hookMask;
+
+        Registry(Map<String, CustomEnchantment> enchantments) {
+            this.enchantments = Collections.unmodifiableMap(enchantments);
+            this.nameTrie = new ENameTrie(enchantments.values());
+            this.hiddenTags = new EHiddenTag(enchantments.values());
+            this.byId = new CustomEnchantment[getIdCount()];
+            for (CustomEnchantment enchantment : enchantments.values()) {
+                byId[enchantment.getId()] = enchantment;
+            }
+
+            EffectHook[] hooks = EffectHook.values();
+            this.byHook = new CustomEnchantment[hooks.length][];
+            int mask = 0;
+            for (EffectHook hook : hooks) {
+                List<CustomEnchantment> users = new ArrayList<CustomEnchantment>();
+                for (CustomEnchantment enchantment : enchantments.values()) {
+                    if (enchantment.usesHook(hook)) users.add(enchantment);
+                }
+                byHook[hook.ordinal()] = users.toArray(new CustomEnchantment[users.size()]);
+                if (!users.isEmpty()) mask |= hook.getBit();
+            }
+            this.hookMask = mask;
         }
-        else return false;
     }
 
     /**
@@ -178,20 +512,18 @@ public class EnchantmentAPI extends JavaPlugin{
      * @return     the list of attached enchantments
      */
     public static Map<CustomEnchantment, Integer> getEnchantments(ItemStack item) {
-        HashMap<CustomEnchantment, Integer> list = new HashMap<CustomEnchantment, Integer>();
-        ItemMeta meta = item.getItemMeta();
-        if (meta == null) return list;
-        if (!meta.hasLore()) return list;
-        for (String lore : meta.getLore()) {
-            String name = ENameParser.parseName(lore);
-            int level = ENameParser.parseLevel(lore);
-            if (name == null) continue;
-            if (level == 0) continue;
-            if (EnchantmentAPI.isRegistered(name)) {
-                list.put(EnchantmentAPI.getEnchantment(name), level);
-            }
-        }
-        return list;
+        return new HashMap<CustomEnchantment, Integer>(ELoreCache.getEnchantments(item));
+    }
+
+    /**
+     * Returns the custom enchantments applied to the item as a compact set.
+     * Prefer this over getEnchantments(ItemStack) in code that runs often.
+     *
+     * @param item the item that's being checked for enchantments
+     * @return     the set of attached enchantments
+     */
+    public static EnchantmentSet getEnchantmentSet(ItemStack item) {
+        return ELoreCache.getEnchantmentSet(item);
     }
 
     /**
@@ -238,8 +570,12 @@ public class EnchantmentAPI extends JavaPlugin{
         if (meta == null) return item;
         if (!meta.hasLore()) return item;
         List<String> lore = meta.getLore();
-        for (Map.Entry<CustomEnchantment, Integer> entry : getEnchantments(item).entrySet()) {
-            lore.remove(ChatColor.GRAY + entry.getKey().name() + " " + ERomanNumeral.numeralOf(entry.getValue()));
+        Iterator<String> iterator = lore.iterator();
+        while (iterator.hasNext()) {
+            String line = iterator.next();
+            if (ELoreCache.enchantmentOf(line) != null && ELoreCache.levelOf(line) > 0) {
+                iterator.remove();
+            }
         }
         meta.setLore(lore);
         item.setItemMeta(meta);
@@ -0,0 +1,304 @@
+package com.rit.sucy;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Immutable set of enchantments with their levels, stored as enchantment
+ * ids sorted in ascending order. Iterate it by index to avoid allocations:
+ * <pre>
+ * for (int i = 0; i &lt; set.size(); i++)
+ *     set.getEnchantment(i).applyEquipEffect(player, set.getLevel(i));
+ * </pre>
+ */
+public final class EnchantmentSet {
+
+    /**
+     * Set without any enchantments
+     */
+    public static final EnchantmentSet EMPTY = new EnchantmentSet(new int[0], new int[0]);
+
+    /**
+     * Sorted enchantment ids
+     */
+    private final int[] ids;
+
+    /**
+     * Levels in the order of the ids
+     */
+    private final int[] levels;
+
+    /**
+     * Lazily created map version of this set
+     */
+    private volatile Map<CustomEnchantment, Integer> map;
+
+    /**
+     * Constructor, the arrays are used as they are
+     *
+     * @param ids    sorted enchantment ids
+     * @param levels levels in the order of the ids
+     */
+    private EnchantmentSet(int[] ids, int[] levels) {
+        this.ids = ids;
+        this.levels = levels;
+    }
+
+    /**
+     * @return amount of enchantments in the set
+     */
+    public int size() {
+        return ids.length;
+    }
+
+    /**
+     * @return true if there are no enchantments in the set
+     */
+    public boolean isEmpty() {
+        return ids.length == 0;
+    }
+
+    /**
+     * Gets the id of the enchantment at the index
+     *
+     * @param index index between 0 and size() - 1
+     * @return      enchantment id
+     */
+    public int getId(int index) {
+        return ids[index];
+    }
+
+    /**
+     * Gets the level of the enchantment at the index
+     *
+     * @param index index between 0 and size() - 1
+     * @return      enchantment level
+     */
+    public int getLevel(int index) {
+        return levels[index];
+    }
+
+    /**
+     * Gets the enchantment at the index
+     *
+     * @param index index between 0 and size() - 1
+     * @return      the enchantment or null if it isn't registered anymore
+     */
+    public CustomEnchantment getEnchantment(int index) {
+        return EnchantmentAPI.getById(ids[index]);
+    }
+
+    /**
+     * Checks if the set contains the enchantment with the given id
+     *
+     * @param id enchantment id
+     * @return   true if it is in the set
+     */
+    public boolean contains(int id) {
+        return Arrays.binarySearch(ids, id) >= 0;
+    }
+
+    /**
+     * Checks if the set contains the enchantment
+     *
+     * @param enchantment enchantment to check for
+     * @return            true if it is in the set
+     */
+    public boolean contains(CustomEnchantment enchantment) {
+        return contains(enchantment.getId());
+    }
+
+    /**
+     * Gets the level of the enchantment with the given id
+     *
+     * @param id enchantment id
+     * @return   the level or 0 if it isn't in the set
+     */
+    public int levelOf(int id) {
+        int index = Arrays.binarySearch(ids, id);
+        return index < 0 ? 0 : levels[index];
+    }
+
+    /**
+     * Gets the level of the enchantment
+     *
+     * @param enchantment enchantment to get the level of
+     * @return            the level or 0 if it isn't in the set
+     */
+    public int levelOf(CustomEnchantment enchantment) {
+        return levelOf(enchantment.getId());
+    }
+
+    /**
+     * Combines this set with another one. Enchantments in both
+     * sets get the higher of their two levels.
+     *
+     * @param other set to combine with
+     * @return      set with the enchantments of both sets
+     */
+    public EnchantmentSet union(EnchantmentSet other) {
+        if (other.isEmpty()) return this;
+        if (isEmpty()) return other;
+
+        int[] newIds = new int[ids.length + other.ids.length];
+        int[] newLevels = new int[newIds.length];
+        int i = 0, j = 0, size = 0;
+        while (i < ids.length || j < other.ids.length) {
+            if (j == other.ids.length || i < ids.length && ids[i] < other.ids[j]) {
+                newIds[size] = ids[i];
+                newLevels[size++] = levels[i++];
+            }
+            else if (i == ids.length || other.ids[j] < ids[i]) {
+                newIds[size] = other.ids[j];
+                newLevels[size++] = other.levels[j++];
+            }
+            else {
+                newIds[size] = ids[i];
+                newLevels[size++] = Math.max(levels[i++], other.levels[j++]);
+            }
+        }
+        return create(newIds, newLevels, size);
+    }
+
+    /**
+     * Gets the enchantments of this set that the other set doesn't
+     * have at the same level. That includes enchantments the other
+     * set has at a different level.
+     *
+     * @param other set to compare with
+     * @return      set with the differing enchantments of this set
+     */
+    public EnchantmentSet difference(EnchantmentSet other) {
+        if (isEmpty() || other.isEmpty()) return this;
+
+        int[] newIds = new int[ids.length];
+        int[] newLevels = new int[ids.length];
+        int size = 0;
+        for (int i = 0; i < ids.length; i++) {
+            if (other.levelOf(ids[i]) != levels[i]) {
+                newIds[size] = ids[i];
+                newLevels[size++] = levels[i];
+            }
+        }
+        return size == ids.length ? this : create(newIds, newLevels, size);
+    }
+
+    /**
+     * Gets the set as a map from the registered enchantments to their levels
+     *
+     * @return unmodifiable map of the enchantments
+     */
+    public Map<CustomEnchantment, Integer> toMap() {
+        if (map == null) {
+            if (isEmpty()) return Collections.emptyMap();
+            Map<CustomEnchantment, Integer> result = new HashMap<CustomEnchantment, Integer>();
+            for (int i = 0; i < ids.length; i++) {
+                CustomEnchantment enchantment = getEnchantment(i);
+                if (enchantment != null) result.put(enchantment, levels[i]);
+            }
+            map = Collections.unmodifiableMap(result);
+        }
+        return map;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) return true;
+        if (!(obj instanceof EnchantmentSet)) return false;
+        EnchantmentSet other = (EnchantmentSet) obj;
+        return Arrays.equals(ids, other.ids) && Arrays.equals(levels, other.levels);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Arrays.hashCode(ids) + Arrays.hashCode(levels);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("{");
+        for (int i = 0; i < ids.length; i++) {
+            if (i > 0) builder.append(", ");
+            builder.append(ids[i]).append('=').append(levels[i]);
+        }
+        return builder.append('}').toString();
+    }
+
+    /**
+     * Creates a set from the first entries of the arrays
+     */
+    private static EnchantmentSet create(int[] ids, int[] levels, int size) {
+        if (size == 0) return EMPTY;
+        if (size < ids.length) {
+            ids = Arrays.copyOf(ids, size);
+            levels = Arrays.copyOf(levels, size);
+        }
+        return new EnchantmentSet(ids, levels);
+    }
+
+    /**
+     * Collects enchantments for a new set
+     */
+    public static class Builder {
+
+        private int[] ids = new int[4];
+        private int[] levels = new int[4];
+        private int size;
+
+        /**
+         * Adds an enchantment, replacing the level if it was added before
+         *
+         * @param id    enchantment id
+         * @param level enchantment level
+         * @return      this builder
+         */
+        public Builder put(int id, int level) {
+            for (int i = 0; i < size; i++) {
+                if (ids[i] == id) {
+                    levels[i] = level;
+                    return this;
+                }
+            }
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                levels = Arrays.copyOf(levels, size * 2);
+            }
+            ids[size] = id;
+            levels[size++] = level;
+            return this;
+        }
+
+        /**
+         * Adds an enchantment, replacing the level if it was added before
+         *
+         * @param enchantment enchantment to add
+         * @param level       enchantment level
+         * @return            this builder
+         */
+        public Builder put(CustomEnchantment enchantment, int level) {
+            return put(enchantment.getId(), level);
+        }
+
+        /**
+         * @return a set with the added enchantments
+         */
+        public EnchantmentSet build() {
+            int[] sortedIds = Arrays.copyOf(ids, size);
+            int[] sortedLevels = Arrays.copyOf(levels, size);
+            // Sets are tiny, so insertion sort is enough
+            for (int i = 1; i < size; i++) {
+                int id = sortedIds[i], level = sortedLevels[i];
+                int j = i - 1;
+                for (; j >= 0 && sortedIds[j] > id; j--) {
+                    sortedIds[j + 1] = sortedIds[j];
+                    sortedLevels[j + 1] = sortedLevels[j];
+                }
+                sortedIds[j + 1] = id;
+                sortedLevels[j + 1] = level;
+            }
+            return create(sortedIds, sortedLevels, size);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.rit.sucy;
+
+import org.apache.commons.lang.Validate;
+
+/**
+ * The equipment slots enchantments can be active in.
+ * Effects are only read from the slots an enchantment is active in.
+ */
+public enum EquipmentSlot
+{
+    /**
+     * The item held in hand
+     */
+    HAND,
+    /**
+     * The helmet
+     */
+    HELMET,
+    /**
+     * The chestplate
+     */
+    CHESTPLATE,
+    /**
+     * The leggings
+     */
+    LEGGINGS,
+    /**
+     * The boots
+     */
+    BOOTS;
+
+    /**
+     * Mask of every slot
+     */
+    public static final int ALL = (1 << values().length) - 1;
+
+    /**
+     * Get the bit of this slot in slot masks
+     *
+     * @return bit of the slot
+     */
+    public int getBit()
+    {
+        return 1 << ordinal();
+    }
+
+    /**
+     * Checks if the slot is part of the mask
+     *
+     * @param mask mask of slot bits
+     * @return     true if the slot's bit is set
+     */
+    public boolean isIn(int mask)
+    {
+        return (mask & getBit()) != 0;
+    }
+
+    /**
+     * Combines slots into a mask
+     *
+     * @param slots slots to combine
+     * @return      mask of the slots
+     */
+    public static int maskOf(EquipmentSlot ... slots)
+    {
+        Validate.notNull(slots);
+        int mask = 0;
+        for (EquipmentSlot slot : slots)
+        {
+            Validate.notNull(slot);
+            mask |= slot.getBit();
+        }
+        return mask;
+    }
+}
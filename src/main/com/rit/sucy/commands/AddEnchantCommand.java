@@ -36,6 +36,7 @@ public class AddEnchantCommand implements ICommand{
             }
             else {
                 player.setItemInHand(enchantment.addToItem(player.getItemInHand(), level));
+                EnchantmentAPI.equipmentChanged(player);
                 player.sendMessage(ChatColor.GREEN + "Enchantment has been applied.");
             }
         }
@@ -2,7 +2,9 @@ package com.rit.sucy.config;
 
 import com.rit.sucy.CustomEnchantment;
 import com.rit.sucy.EnchantmentAPI;
+import com.rit.sucy.enchanting.EEnchantTable;
 import com.rit.sucy.enchanting.VanillaEnchantment;
+import com.rit.sucy.service.EHiddenTag;
 import com.rit.sucy.service.MaterialsParser;
 import com.rit.sucy.service.ModularConfig;
 import org.bukkit.Material;
@@ -78,6 +80,8 @@ public class RootConfig extends ModularConfig
         {
             updateOption(node, config);
         }
+        EHiddenTag.setEnabled(getBoolean(RootNode.HIDDEN_TAGS));
+        EEnchantTable.setConflictAwareSampling(getBoolean(RootNode.CONFLICT_AWARE_SAMPLING));
     }
 
     @Override
@@ -40,6 +40,10 @@ public enum RootNode implements ConfigNode
             ("What you need to be able to customize.Custom Enchantments.Weight", VarType.BOOLEAN, false),
     CUSTOM_ITEMS
             ("What you need to be able to customize.Custom Enchantments.Items", VarType.BOOLEAN, false),
+    HIDDEN_TAGS
+            ("Item Lore.Write Hidden Enchantment Tags", VarType.BOOLEAN, false),
+    CONFLICT_AWARE_SAMPLING
+            ("Enchanting.Conflict Aware Sampling", VarType.BOOLEAN, true),
     ;
     /**
      * Path.
@@ -0,0 +1,107 @@
+package com.rit.sucy.enchanting;
+
+import com.rit.sucy.CustomEnchantment;
+
+import java.util.Random;
+
+/**
+ * Walker alias table for drawing enchantments by weight in constant time.
+ * Each column holds the chance of keeping its own enchantment and the
+ * enchantment it falls back to otherwise, so a draw is one random column
+ * plus one random number no matter how many enchantments there are.
+ */
+class EAliasTable {
+
+    /**
+     * Enchantments that can be drawn
+     */
+    private final CustomEnchantment[] enchantments;
+
+    /**
+     * Weight of each enchantment
+     */
+    private final int[] weights;
+
+    /**
+     * Chance of keeping the enchantment of each column
+     */
+    private final double[] chances;
+
+    /**
+     * Column to fall back to for each column
+     */
+    private final int[] aliases;
+
+    /**
+     * Builds the table for the enchantments with the given weights.
+     * Enchantments with a weight of 0 or less are never drawn.
+     *
+     * @param enchantments enchantments to draw from
+     * @param weights      weight of each enchantment
+     */
+    EAliasTable(CustomEnchantment[] enchantments, int[] weights) {
+        long total = 0;
+        for (int weight : weights) {
+            if (weight > 0) total += weight;
+        }
+        int size = total == 0 ? 0 : enchantments.length;
+        this.enchantments = enchantments;
+        this.weights = weights;
+        this.chances = new double[size];
+        this.aliases = new int[size];
+        if (size == 0) return;
+
+        // Scale the weights so the average column is exactly full
+        int[] small = new int[size];
+        int[] large = new int[size];
+        int smallCount = 0, largeCount = 0;
+        for (int i = 0; i < size; i++) {
+            chances[i] = (double) Math.max(weights[i], 0) * size / total;
+            if (chances[i] < 1) small[smallCount++] = i;
+            else large[largeCount++] = i;
+        }
+
+        // Top up each column that is too small with one that is too large
+        while (smallCount > 0 && largeCount > 0) {
+            int less = small[--smallCount];
+            int more = large[--largeCount];
+            aliases[less] = more;
+            chances[more] -= 1 - chances[less];
+            if (chances[more] < 1) small[smallCount++] = more;
+            else large[largeCount++] = more;
+        }
+
+        // Whatever is left over is only off by rounding errors
+        while (largeCount > 0) chances[large[--largeCount]] = 1;
+        while (smallCount > 0) chances[small[--smallCount]] = 1;
+    }
+
+    /**
+     * @return true if nothing can be drawn
+     */
+    boolean isEmpty() {
+        return chances.length == 0;
+    }
+
+    /**
+     * Creates a pool of the same enchantments and weights that
+     * candidates can be taken out of while enchanting
+     *
+     * @return new pool
+     */
+    EWeightedPool newPool() {
+        return new EWeightedPool(enchantments, weights);
+    }
+
+    /**
+     * Draws an enchantment
+     *
+     * @param random random number source
+     * @return       the drawn enchantment or null if the table is empty
+     */
+    CustomEnchantment draw(Random random) {
+        if (chances.length == 0) return null;
+        int column = random.nextInt(chances.length);
+        return random.nextDouble() < chances[column] ? enchantments[column] : enchantments[aliases[column]];
+    }
+}
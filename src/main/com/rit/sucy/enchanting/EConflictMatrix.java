@@ -0,0 +1,107 @@
+package com.rit.sucy.enchanting;
+
+import com.rit.sucy.CustomEnchantment;
+
+import java.util.Collection;
+
+/**
+ * Conflicts between enchantments compiled into one bit row per enchantment id.
+ * Two enchantments conflict if either one says it conflicts with the other,
+ * and every enchantment conflicts with itself, so checking a candidate against
+ * everything chosen so far is a few ANDs against a mask of the chosen ids.
+ */
+class EConflictMatrix {
+
+    /**
+     * Amount of ids in the matrix
+     */
+    private final int size;
+
+    /**
+     * Amount of longs in each row and mask
+     */
+    private final int words;
+
+    /**
+     * Rows of all ids one after another
+     */
+    private final long[] rows;
+
+    /**
+     * Compiles the conflicts between the enchantments.
+     * Enchantments without an id are left out.
+     *
+     * @param enchantments enchantments to compile the conflicts of
+     * @param idCount      amount of ids, every id has to be lower
+     */
+    EConflictMatrix(Collection<CustomEnchantment> enchantments, int idCount) {
+        size = idCount;
+        words = (idCount + 63) >>> 6;
+        rows = new long[idCount * words];
+        for (CustomEnchantment a : enchantments) {
+            int idA = a.getId();
+            if (idA < 0 || idA >= idCount) continue;
+            set(idA, idA);
+            for (CustomEnchantment b : enchantments) {
+                int idB = b.getId();
+                if (idB < 0 || idB >= idCount || idB == idA) continue;
+                if (a.conflictsWith(b)) {
+                    set(idA, idB);
+                    set(idB, idA);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return an empty mask of chosen enchantments
+     */
+    long[] newMask() {
+        return new long[words];
+    }
+
+    /**
+     * Marks an enchantment as chosen in the mask
+     *
+     * @param mask mask of chosen enchantments
+     * @param id   id of the chosen enchantment
+     */
+    void add(long[] mask, int id) {
+        if (id >= 0 && id < size) mask[id >>> 6] |= 1L << id;
+    }
+
+    /**
+     * Checks if the enchantment conflicts with any chosen one
+     *
+     * @param id   id of the enchantment to check
+     * @param mask mask of chosen enchantments
+     * @return     true if it conflicts
+     */
+    boolean conflicts(int id, long[] mask) {
+        if (id < 0 || id >= size) return false;
+        int row = id * words;
+        for (int i = 0; i < words; i++) {
+            if ((rows[row + i] & mask[i]) != 0) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Checks if two enchantments conflict
+     *
+     * @param a id of one enchantment
+     * @param b id of the other enchantment
+     * @return  true if they conflict
+     */
+    boolean conflicts(int a, int b) {
+        if (a < 0 || b < 0 || a >= size || b >= size) return false;
+        return (rows[a * words + (b >>> 6)] & 1L << b) != 0;
+    }
+
+    /**
+     * Sets the bit for b in the row of a
+     */
+    private void set(int a, int b) {
+        rows[a * words + (b >>> 6)] |= 1L << b;
+    }
+}
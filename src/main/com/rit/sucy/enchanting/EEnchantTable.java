@@ -1,7 +1,6 @@
 package com.rit.sucy.enchanting;
 
 import com.rit.sucy.CustomEnchantment;
-import com.rit.sucy.EnchantmentAPI;
 import com.rit.sucy.service.MaterialClass;
 import org.bukkit.Material;
 import org.bukkit.inventory.ItemStack;
@@ -18,6 +17,35 @@ public class EEnchantTable {
      */
     static final int MAX_TRIES = 10;
 
+    /**
+     * Random numbers for drawing enchantments, safe to share between threads
+     */
+    static final Random RANDOM = new Random();
+
+    /**
+     * Whether conflicting candidates are taken out after each pick instead of redrawing
+     */
+    private static volatile boolean conflictAware = true;
+
+    /**
+     * Sets how enchantments conflicting with already chosen ones are avoided.
+     * With conflict aware sampling everything conflicting with a pick is taken out
+     * of the candidates, so each enchantment takes one draw. Otherwise conflicting
+     * draws are thrown away and retried up to MAX_TRIES times.
+     *
+     * @param enabled true to take out conflicting candidates
+     */
+    public static void setConflictAwareSampling(boolean enabled) {
+        conflictAware = enabled;
+    }
+
+    /**
+     * @return whether conflicting candidates are taken out after each pick
+     */
+    public static boolean isConflictAwareSampling() {
+        return conflictAware;
+    }
+
     /**
      * Enchants an item
      *
@@ -30,11 +58,15 @@ public class EEnchantTable {
         boolean chooseEnchantment = true;
         //enchants added to the item
         Map<CustomEnchantment, Integer> choosenEnchantsWithCost = new HashMap<CustomEnchantment, Integer>();
-        //Build a Map where the number of keys for a certain Enchantment corresponds to the weight
-        List<CustomEnchantment> validEnchants = getAllValidEnchants(item);
-
-        // Find the total weight of all applicable enchantments
-        int totalWeight = weightOfAllEnchants(validEnchants, item);
+        // Weighted draws of all applicable enchantments
+        ETableIndex index = ETableIndex.get();
+        EAliasTable validEnchants = index.getTable(item);
+        if (validEnchants.isEmpty()) return item;
+        EConflictMatrix conflicts = index.getConflicts();
+        long[] chosen = conflicts.newMask();
+        // Most items only get one enchantment, so the pool is only built for a second pick
+        EWeightedPool pool = null;
+        CustomEnchantment first = null;
 
         int level = 1;
 
@@ -47,18 +79,25 @@ public class EEnchantTable {
             enchantLevel = modifiedLevel(enchantLevel, MaterialClass.getEnchantabilityFor(item.getType()));
 
             // Try to add an Enchantment, stop adding enchantments if the enchantment would conflict
-            CustomEnchantment enchant = null;
-            int tries = 0;
-            do {
-                enchant = weightedRandom(validEnchants, item);
-                if (enchant.conflictsWith(new ArrayList<CustomEnchantment>(choosenEnchantsWithCost.keySet())))
-                    continue;
+            CustomEnchantment enchant;
+            if (!conflictAware) enchant = drawWithRetries(validEnchants, conflicts, chosen);
+            else if (first == null) enchant = first = validEnchants.draw(RANDOM);
+            else {
+                if (pool == null) {
+                    pool = validEnchants.newPool();
+                    pool.removeConflicts(conflicts, first);
+                }
+                enchant = drawFromPool(pool, conflicts);
+            }
+            if (enchant != null) {
                 level = enchant.getEnchantmentLevel((int)(0.3 + enchantLevel * (0.29 * Math.random() + 0.7)));
 
                 // Add the enchantment to the list
                 choosenEnchantsWithCost.put(enchant, level);
-                break;
-            } while(tries++ < MAX_TRIES);
+                conflicts.add(chosen, enchant.getId());
+            }
+            // Nothing left that could be added
+            else if (conflictAware) break;
 
             // Reduce the chance of getting another one along with the power of the next one
             enchantLevel /= 2;
@@ -82,6 +121,35 @@ public class EEnchantTable {
         return item;
     }
 
+    /**
+     * Draws an enchantment and takes everything conflicting with it out of the pool
+     *
+     * @param pool      remaining candidates
+     * @param conflicts conflicts between the enchantments
+     * @return          the drawn enchantment or null if the pool is empty
+     */
+    static CustomEnchantment drawFromPool(EWeightedPool pool, EConflictMatrix conflicts) {
+        CustomEnchantment enchant = pool.draw(RANDOM);
+        if (enchant != null) pool.removeConflicts(conflicts, enchant);
+        return enchant;
+    }
+
+    /**
+     * Draws enchantments until one doesn't conflict with the chosen ones
+     *
+     * @param table     weighted draws of the candidates
+     * @param conflicts conflicts between the enchantments
+     * @param chosen    mask of the chosen enchantments
+     * @return          the drawn enchantment or null if all tries conflicted
+     */
+    static CustomEnchantment drawWithRetries(EAliasTable table, EConflictMatrix conflicts, long[] chosen) {
+        for (int tries = 0; tries <= MAX_TRIES; tries++) {
+            CustomEnchantment enchant = table.draw(RANDOM);
+            if (!conflicts.conflicts(enchant.getId(), chosen)) return enchant;
+        }
+        return null;
+    }
+
     /**
      * Calculates a modified experience level
      *
@@ -116,69 +184,34 @@ public class EEnchantTable {
     }
 
     /**
-     * Get an Enchantment considering the weight (probability) of each Enchantment
-     *
-     * @param enchantments  possible valid enchantments
-     * @param item          to get the weights for
+     * Get all enchantments which can be applied to the given ItemStack
      *
-     * @return              One possible CustomEnchantment
+     * @param item  item to check for applicable enchantments
+     * @return      unmodifiable list of all applicable enchantments
      */
-    static CustomEnchantment weightedRandom (Collection<CustomEnchantment> enchantments, ItemStack item){
-        //TODO use Item
-
-        // Compute the total weight of all items together
-        int totalWeight = weightOfAllEnchants(enchantments, item);
-
-        //select a random value between 0 and our total
-        int random = new Random().nextInt(totalWeight);
-
-        Iterator<CustomEnchantment> iter = enchantments.iterator();
-        CustomEnchantment enchantment = null;
-
-        //loop thru our weightings until we arrive at the correct one
-        int current = 0;
-        while (iter.hasNext()){
-            enchantment = iter.next();
-            current += enchantment.getWeight();
-            if (random < current)
-                return enchantment;
-        }
-
-        return enchantment; //or null
+    static List<CustomEnchantment> getAllValidEnchants(ItemStack item){
+        return Collections.unmodifiableList(Arrays.asList(ETableIndex.get().getEnchantments(item)));
     }
 
     /**
-     * Gets the total weight of all custom enchantments applicable to the item
+     * Checks if any enabled enchantment can be applied to the material
+     * at an enchanting table. Books can get every enchantment.
      *
-     * @param item  item type to get the weight for
-     * @return      total custom enchantment weight
+     * @param material  material of the item
+     * @return          true if at least one enchantment applies
      */
-    static int weightOfAllEnchants(Collection<CustomEnchantment> validEnchants, ItemStack item) {
-        int count = 0;
-        for (CustomEnchantment enchantment : validEnchants) {
-            //TODO fix this design issue
-            count += enchantment.getWeight();
-        }
-        return count;
+    public static boolean hasAnyApplicableEnchant(Material material){
+        return hasAnyApplicableEnchant(new ItemStack(material));
     }
 
     /**
-     * Get all enchantments which can be applied to the given ItemStack
+     * Checks if any enabled enchantment can be applied to the item
+     * at an enchanting table. Books can get every enchantment.
      *
-     * @param item  item to check for applicable enchantments
-     * @return      List of all applicable enchantments
+     * @param item  item to check
+     * @return      true if at least one enchantment applies
      */
-    static List<CustomEnchantment> getAllValidEnchants(ItemStack item){
-        List<CustomEnchantment> validEnchantments = new ArrayList<CustomEnchantment>();
-        //Books can get everything
-        if (item.getType() == Material.BOOK)
-            return new ArrayList<CustomEnchantment>(EnchantmentAPI.getEnchantments());
-
-        for (CustomEnchantment enchantment : EnchantmentAPI.getEnchantments()){
-            if (enchantment.canEnchantOnto(item) && enchantment.isEnabled()){
-                validEnchantments.add(enchantment);
-            }
-        }
-        return validEnchantments;
+    public static boolean hasAnyApplicableEnchant(ItemStack item){
+        return ETableIndex.get().hasAny(item);
     }
 }
@@ -1,13 +1,17 @@
 package com.rit.sucy.enchanting;
 
-import com.rit.sucy.EnchantmentAPI;
-import com.rit.sucy.service.ENameParser;
+import com.rit.sucy.CustomEnchantment;
+import com.rit.sucy.EffectHook;
+import com.rit.sucy.EnchantmentSet;
+import com.rit.sucy.EquipmentSlot;
+import com.rit.sucy.service.ELoreCache;
 import org.bukkit.entity.Player;
 import org.bukkit.inventory.ItemStack;
-import org.bukkit.inventory.meta.ItemMeta;
 import org.bukkit.scheduler.BukkitRunnable;
 
-import java.util.Hashtable;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Handles keeping track of player equipment for Equip and Unequip enchantment effects
@@ -15,9 +19,9 @@ import java.util.Hashtable;
 public class EEquip extends BukkitRunnable {
 
     /**
-     * Table of player data
+     * Enchantments on the armor of each player as of the last check
      */
-    static Hashtable<String, ItemStack[]> equipment = new Hashtable<String, ItemStack[]>();
+    static Map<UUID, EnchantmentSet> equipment = new ConcurrentHashMap<UUID, EnchantmentSet>();
 
     /**
      * Loads the equipment of the given player
@@ -25,7 +29,7 @@ public class EEquip extends BukkitRunnable {
      * @param player player to load
      */
     public static void loadPlayer(Player player) {
-        equipment.put(player.getName(), player.getEquipment().getArmorContents());
+        equipment.put(player.getUniqueId(), enchantmentsOf(player.getEquipment().getArmorContents()));
     }
 
     /**
@@ -34,7 +38,7 @@ public class EEquip extends BukkitRunnable {
      * @param player player to clear
      */
     public static void clearPlayer(Player player) {
-        equipment.remove(player.getName());
+        equipment.remove(player.getUniqueId());
     }
 
     /**
@@ -59,57 +63,71 @@ public class EEquip extends BukkitRunnable {
     }
 
     /**
-     * Performs checks for changes to player equipment
+     * Performs checks for changes to player equipment. Enchantments are compared
+     * across all armor combined, each only counting in the slots it is active
+     * in, so moving an enchantment between pieces or swapping in an item with
+     * the same enchantment doesn't re-apply it.
+     * Enchantments that were removed or changed level are unequipped first,
+     * then the added or changed ones are equipped at their new level.
      */
     public void run() {
-        ItemStack[] equips = player.getEquipment().getArmorContents();
-        ItemStack[] previous = equipment.get(player.getName());
-        for (int i = 0; i < equips.length; i++) {
-            if (!equips[i].toString().equalsIgnoreCase(previous[i].toString())) {
-                doEquip(equips[i]);
-                doUnequip(previous[i]);
-            }
+        EnchantmentSet current = enchantmentsOf(player.getEquipment().getArmorContents());
+        EnchantmentSet previous = equipment.put(player.getUniqueId(), current);
+        if (previous == null || previous.equals(current)) return;
+        doUnequip(previous.difference(current));
+        doEquip(current.difference(previous));
+    }
+
+    /**
+     * Gets the enchantments on armor that matter for equip effects, each
+     * only counting in the slots it is active in
+     *
+     * @param armor armor contents of a player
+     * @return      enchantments of all slots combined
+     */
+    static EnchantmentSet enchantmentsOf(ItemStack[] armor) {
+        EnchantmentSet all = EnchantmentSet.EMPTY;
+        for (int i = 0; i < armor.length; i++) {
+            EnchantmentSet enchantments = ELoreCache.getEnchantmentSet(armor[i]);
+            if (i < ARMOR_SLOTS.length) enchantments = EEquipmentCache.activeIn(enchantments, ARMOR_SLOTS[i], EQUIP_HOOKS);
+            all = all.union(enchantments);
         }
-        equipment.put(player.getName(), equips);
+        return all;
     }
 
     /**
-     * Applies equip actions to the given item
+     * Applies equip actions to the given enchantments
      *
-     * @param item the equipment that was just equipped
+     * @param enchantments enchantments of the equipment that was just equipped
      */
-    private void doEquip(ItemStack item) {
-        ItemMeta meta = item.getItemMeta();
-        if (meta == null) return;
-        if (!meta.hasLore()) return;
-        for (String lore : meta.getLore()) {
-            String name = ENameParser.parseName(lore);
-            int level = ENameParser.parseLevel(lore);
-            if (name == null) continue;
-            if (level == 0) continue;
-            if (EnchantmentAPI.isRegistered(name)) {
-                EnchantmentAPI.getEnchantment(name).applyEquipEffect(player, level);
-            }
+    private void doEquip(EnchantmentSet enchantments) {
+        for (int i = 0; i < enchantments.size(); i++) {
+            CustomEnchantment enchantment = enchantments.getEnchantment(i);
+            if (enchantment != null && enchantment.usesHook(EffectHook.EQUIP)) enchantment.applyEquipEffect(player, enchantments.getLevel(i));
         }
     }
 
     /**
-     * Applies equip actions to the given item
+     * Applies unequip actions to the given enchantments
      *
-     * @param item the equipment that was just equipped
+     * @param enchantments enchantments of the equipment that was just unequipped
      */
-    private void doUnequip(ItemStack item) {
-        ItemMeta meta = item.getItemMeta();
-        if (meta == null) return;
-        if (!meta.hasLore()) return;
-        for (String lore : meta.getLore()) {
-            String name = ENameParser.parseName(lore);
-            int level = ENameParser.parseLevel(lore);
-            if (name == null) continue;
-            if (level == 0) continue;
-            if (EnchantmentAPI.isRegistered(name)) {
-                EnchantmentAPI.getEnchantment(name).applyUnequipEffect(player, level);
-            }
+    private void doUnequip(EnchantmentSet enchantments) {
+        for (int i = 0; i < enchantments.size(); i++) {
+            CustomEnchantment enchantment = enchantments.getEnchantment(i);
+            if (enchantment != null && enchantment.usesHook(EffectHook.UNEQUIP)) enchantment.applyUnequipEffect(player, enchantments.getLevel(i));
         }
     }
+
+    /**
+     * Hooks equip checks are done for
+     */
+    private static final int EQUIP_HOOKS = EffectHook.EQUIP.getBit() | EffectHook.UNEQUIP.getBit();
+
+    /**
+     * Slot of each index of getArmorContents
+     */
+    private static final EquipmentSlot[] ARMOR_SLOTS = {
+            EquipmentSlot.BOOTS, EquipmentSlot.LEGGINGS, EquipmentSlot.CHESTPLATE, EquipmentSlot.HELMET
+    };
 }
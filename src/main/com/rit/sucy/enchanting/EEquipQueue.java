@@ -0,0 +1,102 @@
+package com.rit.sucy.enchanting;
+
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitRunnable;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Collects players whose equipment may have changed and checks each of
+ * them once on the next tick, however many events marked them. One
+ * repeating task does all checks instead of a task per event.
+ */
+public class EEquipQueue extends BukkitRunnable {
+
+    /**
+     * Times a player was marked as changed
+     */
+    private static final AtomicLong requests = new AtomicLong();
+
+    /**
+     * Equipment checks actually done
+     */
+    private static final AtomicLong checks = new AtomicLong();
+
+    /**
+     * Players to check on the next tick, only used on the main thread
+     */
+    private final Map<UUID, Player> dirty = new LinkedHashMap<UUID, Player>();
+
+    /**
+     * Wheel to schedule newly equipped passive effects in
+     */
+    private final EPassiveWheel passives;
+
+    /**
+     * Starts checking marked players every tick
+     *
+     * @param plugin   plugin to run the task for
+     * @param passives wheel calling passive effects
+     */
+    EEquipQueue(Plugin plugin, EPassiveWheel passives) {
+        this.passives = passives;
+        runTaskTimer(plugin, 1, 1);
+    }
+
+    /**
+     * Marks the equipment of the player as possibly changed.
+     * Has to be called on the main thread.
+     *
+     * @param player player to check on the next tick
+     */
+    void markDirty(Player player) {
+        requests.incrementAndGet();
+        dirty.put(player.getUniqueId(), player);
+    }
+
+    /**
+     * Checks the equipment of every marked player
+     */
+    public void run() {
+        if (dirty.isEmpty()) return;
+        // Checks can fire effects that mark players again, those wait for the next tick
+        ArrayList<Player> players = new ArrayList<Player>(dirty.values());
+        dirty.clear();
+        for (Player player : players) {
+            if (!player.isOnline()) continue;
+            checks.incrementAndGet();
+            EEquipmentCache.invalidate(player);
+            new EEquip(player).run();
+            passives.update(player);
+        }
+    }
+
+    /**
+     * @return times a player's equipment was marked as changed
+     */
+    public static long getRequests() {
+        return requests.get();
+    }
+
+    /**
+     * @return equipment checks done for the marked players
+     */
+    public static long getChecks() {
+        return checks.get();
+    }
+
+    /**
+     * Gets how many marks were folded into each check
+     *
+     * @return requests per check, 1 if nothing was coalesced yet
+     */
+    public static double getCoalescingRatio() {
+        long done = checks.get();
+        return done == 0 ? 1 : (double) requests.get() / done;
+    }
+}
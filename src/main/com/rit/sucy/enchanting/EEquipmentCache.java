@@ -0,0 +1,282 @@
+package com.rit.sucy.enchanting;
+
+import com.rit.sucy.CustomEnchantment;
+import com.rit.sucy.EffectHook;
+import com.rit.sucy.EnchantmentAPI;
+import com.rit.sucy.EnchantmentSet;
+import com.rit.sucy.EquipmentSlot;
+import com.rit.sucy.service.ELoreCache;
+import org.bukkit.entity.LivingEntity;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.EntityEquipment;
+import org.bukkit.inventory.ItemStack;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps the enchantments on the equipment of each player so event handlers
+ * don't have to read and parse the equipment every time. Entries are dropped
+ * whenever the equipment of a player may have changed and rebuilt on the
+ * next read. Other entities are read directly as their equipment changes
+ * without any events.
+ */
+public class EEquipmentCache {
+
+    /**
+     * Cached equipment of the players
+     */
+    private static final Map<UUID, Entry> players = new ConcurrentHashMap<UUID, Entry>();
+
+    /**
+     * Slots each hook needs to read, for the current registry generation
+     */
+    private static volatile HookSlots hookSlots = new HookSlots(-1);
+
+    /**
+     * Gets the enchantments on all equipment of the entity
+     *
+     * @param entity entity to get the enchantments of
+     * @return       enchantments of the hand and armor slots combined
+     */
+    public static EnchantmentSet getEnchantments(LivingEntity entity) {
+        if (entity instanceof Player) return entryOf((Player) entity).all;
+        EnchantmentSet[] slots = readSlots(entity, EquipmentSlot.ALL);
+        return union(slots);
+    }
+
+    /**
+     * Gets the enchantments of the entity that apply for the hook. Only
+     * enchantments using the hook are included, each only from the slots
+     * it is active in, and other slots aren't read at all.
+     *
+     * @param entity entity to get the enchantments of
+     * @param hook   hook the enchantments are needed for
+     * @return       enchantments to call for the hook
+     */
+    public static EnchantmentSet getEnchantments(LivingEntity entity, EffectHook hook) {
+        if (entity instanceof Player) return entryOf((Player) entity).forHook(hook);
+        int mask = slotsOf(hook);
+        if (mask == 0) return EnchantmentSet.EMPTY;
+        return filter(readSlots(entity, mask), hook, mask);
+    }
+
+    /**
+     * Quickly checks if the entity could have any enchantments on its equipment.
+     * Players are answered from the cache, other entities only have their
+     * equipment checked for item meta, which lore needs, without reading any lore.
+     *
+     * @param entity entity to check
+     * @return       false if the entity surely has no enchantments
+     */
+    public static boolean mayHaveEnchantments(LivingEntity entity) {
+        if (entity instanceof Player) return !entryOf((Player) entity).all.isEmpty();
+        EntityEquipment equipment = entity.getEquipment();
+        if (equipment == null) return false;
+        for (EquipmentSlot slot : EquipmentSlot.values()) {
+            ItemStack item = itemIn(equipment, slot);
+            if (item != null && item.hasItemMeta()) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Forgets the cached equipment of the player. Plugins changing the
+     * equipment of a player without an event should call
+     * EnchantmentAPI.equipmentChanged instead, which also updates effects.
+     *
+     * @param player player whose equipment changed
+     */
+    public static void invalidate(Player player) {
+        players.remove(player.getUniqueId());
+    }
+
+    /**
+     * Forgets the cached equipment of all players
+     */
+    public static void clear() {
+        players.clear();
+    }
+
+    /**
+     * @return amount of players with cached equipment
+     */
+    public static int size() {
+        return players.size();
+    }
+
+    /**
+     * Gets the item in an equipment slot
+     *
+     * @param equipment equipment of an entity
+     * @param slot      slot to get the item of
+     * @return          item in the slot, possibly null
+     */
+    static ItemStack itemIn(EntityEquipment equipment, EquipmentSlot slot) {
+        switch (slot) {
+            case HAND: return equipment.getItemInHand();
+            case HELMET: return equipment.getHelmet();
+            case CHESTPLATE: return equipment.getChestplate();
+            case LEGGINGS: return equipment.getLeggings();
+            default: return equipment.getBoots();
+        }
+    }
+
+    /**
+     * Gets the up to date entry of the player, reading the equipment if needed
+     */
+    private static Entry entryOf(Player player) {
+        long generation = EnchantmentAPI.getRegistryGeneration();
+        Entry entry = players.get(player.getUniqueId());
+        if (entry == null || entry.generation != generation) {
+            entry = new Entry(generation, readSlots(player, EquipmentSlot.ALL));
+            players.put(player.getUniqueId(), entry);
+        }
+        return entry;
+    }
+
+    /**
+     * Gets the slots the enchantments using the hook are active in
+     */
+    private static int slotsOf(EffectHook hook) {
+        long generation = EnchantmentAPI.getRegistryGeneration();
+        HookSlots slots = hookSlots;
+        if (slots.generation != generation) {
+            slots = new HookSlots(generation);
+            hookSlots = slots;
+        }
+        return slots.masks[hook.ordinal()];
+    }
+
+    /**
+     * Reads the enchantments of the equipment slots in the mask,
+     * leaving the other slots empty
+     */
+    private static EnchantmentSet[] readSlots(LivingEntity entity, int mask) {
+        EquipmentSlot[] values = EquipmentSlot.values();
+        EnchantmentSet[] slots = new EnchantmentSet[values.length];
+        EntityEquipment equipment = entity.getEquipment();
+        for (EquipmentSlot slot : values) {
+            slots[slot.ordinal()] = equipment == null || !slot.isIn(mask)
+                    ? EnchantmentSet.EMPTY
+                    : ELoreCache.getEnchantmentSet(itemIn(equipment, slot));
+        }
+        return slots;
+    }
+
+    /**
+     * Combines the enchantments using the hook from the slots they are active in
+     */
+    private static EnchantmentSet filter(EnchantmentSet[] slots, EffectHook hook, int mask) {
+        EnchantmentSet result = EnchantmentSet.EMPTY;
+        for (EquipmentSlot slot : EquipmentSlot.values()) {
+            if (!slot.isIn(mask)) continue;
+            result = result.union(activeIn(slots[slot.ordinal()], slot, hook.getBit()));
+        }
+        return result;
+    }
+
+    /**
+     * Gets the enchantments of an item in the slot that are active in
+     * the slot and use any of the hooks
+     *
+     * @param enchantments enchantments on the item in the slot
+     * @param slot         slot the item is in
+     * @param hooks        mask of EffectHook bits
+     * @return             the matching enchantments, the same set if all match
+     */
+    static EnchantmentSet activeIn(EnchantmentSet enchantments, EquipmentSlot slot, int hooks) {
+        EnchantmentSet.Builder builder = null;
+        for (int i = 0; i < enchantments.size(); i++) {
+            CustomEnchantment enchantment = enchantments.getEnchantment(i);
+            boolean active = enchantment != null && enchantment.isActiveIn(slot) && (enchantment.getHookMask() & hooks) != 0;
+            if (builder == null) {
+                if (active) continue;
+                // First one left out, copy the ones before it
+                builder = new EnchantmentSet.Builder();
+                for (int j = 0; j < i; j++) {
+                    builder.put(enchantments.getId(j), enchantments.getLevel(j));
+                }
+            }
+            else if (active) builder.put(enchantments.getId(i), enchantments.getLevel(i));
+        }
+        return builder == null ? enchantments : builder.build();
+    }
+
+    /**
+     * Combines the enchantments of all slots
+     */
+    private static EnchantmentSet union(EnchantmentSet[] slots) {
+        EnchantmentSet all = EnchantmentSet.EMPTY;
+        for (EnchantmentSet slot : slots) {
+            all = all.union(slot);
+        }
+        return all;
+    }
+
+    /**
+     * Cached equipment of one player
+     */
+    private static class Entry {
+
+        /**
+         * Registry generation the lore was read with
+         */
+        final long generation;
+
+        /**
+         * Enchantments by slot ordinal
+         */
+        final EnchantmentSet[] slots;
+
+        /**
+         * Enchantments of all slots combined
+         */
+        final EnchantmentSet all;
+
+        /**
+         * Enchantments applying for each hook, filled in when first needed
+         */
+        final EnchantmentSet[] byHook = new EnchantmentSet[EffectHook.values().length];
+
+        Entry(long generation, EnchantmentSet[] slots) {
+            this.generation = generation;
+            this.slots = slots;
+            this.all = union(slots);
+        }
+
+        EnchantmentSet forHook(EffectHook hook) {
+            EnchantmentSet set = byHook[hook.ordinal()];
+            if (set == null) {
+                // Racing threads compute the same set, so either result is fine
+                set = all.isEmpty() ? EnchantmentSet.EMPTY : filter(slots, hook, slotsOf(hook));
+                byHook[hook.ordinal()] = set;
+            }
+            return set;
+        }
+    }
+
+    /**
+     * Slots each hook needs for one registry generation
+     */
+    private static class HookSlots {
+
+        final long generation;
+
+        /**
+         * Slot mask by hook ordinal
+         */
+        final int[] masks = new int[EffectHook.values().length];
+
+        HookSlots(long generation) {
+            this.generation = generation;
+            if (generation < 0) return;
+            for (EffectHook hook : EffectHook.values()) {
+                for (CustomEnchantment enchantment : EnchantmentAPI.getHookEnchantments(hook)) {
+                    masks[hook.ordinal()] |= enchantment.getSlotMask();
+                }
+            }
+        }
+    }
+}
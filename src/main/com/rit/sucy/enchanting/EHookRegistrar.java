@@ -0,0 +1,193 @@
+package com.rit.sucy.enchanting;
+
+import com.rit.sucy.EffectHook;
+import com.rit.sucy.EnchantmentAPI;
+import org.bukkit.event.Event;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.HandlerList;
+import org.bukkit.event.Listener;
+import org.bukkit.event.block.BlockBreakEvent;
+import org.bukkit.event.block.BlockDamageEvent;
+import org.bukkit.event.entity.EntityDamageEvent;
+import org.bukkit.event.player.PlayerInteractEntityEvent;
+import org.bukkit.event.player.PlayerInteractEvent;
+import org.bukkit.plugin.EventExecutor;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.plugin.PluginManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Registers the effect handlers of an EListener with Bukkit only while
+ * a registered enchantment uses their hook, so frequent events like
+ * PlayerInteractEvent and EntityDamageEvent aren't listened to for nothing.
+ */
+class EHookRegistrar {
+
+    /**
+     * Mask of every hook
+     */
+    private static final int ALL_HOOKS = (1 << EffectHook.values().length) - 1;
+
+    /**
+     * Listener whose handlers are registered
+     */
+    private final EListener listener;
+
+    /**
+     * Plugin the handlers are registered for
+     */
+    private final Plugin plugin;
+
+    /**
+     * Groups of handlers registered together
+     */
+    private final List<HandlerGroup> groups = new ArrayList<HandlerGroup>();
+
+    /**
+     * Whether an update is already scheduled
+     */
+    private final AtomicBoolean pending = new AtomicBoolean();
+
+    /**
+     * Set once the listener is replaced, stops any further registering
+     */
+    private volatile boolean closed;
+
+    /**
+     * Sets up the handler groups of the listener
+     *
+     * @param listener listener with the effect handlers
+     * @param plugin   plugin to register the handlers for
+     */
+    EHookRegistrar(final EListener listener, Plugin plugin) {
+        this.listener = listener;
+        this.plugin = plugin;
+
+        // Subclasses of EntityDamageEvent share its handler list, so one handler sees every damage event once
+        groups.add(new HandlerGroup(EffectHook.OFFENSE.getBit() | EffectHook.DEFENSE.getBit())
+                .add(new Handler(EntityDamageEvent.class, true) {
+                    void handle(Event event) { listener.onDamage((EntityDamageEvent) event); }
+                }));
+        groups.add(new HandlerGroup(EffectHook.TOOL.getBit())
+                .add(new Handler(BlockDamageEvent.class, true) {
+                    void handle(Event event) { listener.onDamageBlock((BlockDamageEvent) event); }
+                })
+                .add(new Handler(BlockBreakEvent.class, true) {
+                    void handle(Event event) { listener.onBreakBlock((BlockBreakEvent) event); }
+                }));
+        // Clicking can put on armor, which every hook reading equipment needs to know about
+        groups.add(new HandlerGroup(ALL_HOOKS)
+                .add(new Handler(PlayerInteractEvent.class, false) {
+                    void handle(Event event) { listener.onInteract((PlayerInteractEvent) event); }
+                }));
+        groups.add(new HandlerGroup(EffectHook.ENTITY.getBit())
+                .add(new Handler(PlayerInteractEntityEvent.class, false) {
+                    void handle(Event event) { listener.onInteract((PlayerInteractEntityEvent) event); }
+                }));
+    }
+
+    /**
+     * Registers and unregisters the handler groups to match the hooks
+     * used by the registered enchantments. Has to run on the main thread.
+     */
+    void update() {
+        if (closed) return;
+        int mask = EnchantmentAPI.getHookMask();
+        PluginManager manager = plugin.getServer().getPluginManager();
+        for (HandlerGroup group : groups) {
+            boolean needed = (mask & group.mask) != 0;
+            if (needed && !group.registered) {
+                for (Handler handler : group.handlers) {
+                    manager.registerEvent(handler.type, group.token, EventPriority.MONITOR, handler, plugin, handler.ignoreCancelled);
+                }
+                group.registered = true;
+            }
+            else if (!needed && group.registered) {
+                HandlerList.unregisterAll(group.token);
+                group.registered = false;
+            }
+        }
+    }
+
+    /**
+     * Schedules an update on the main thread, followed by scheduling the
+     * passive effects of online players. Any number of calls before it
+     * runs result in a single update.
+     */
+    void scheduleUpdate() {
+        if (closed || !plugin.isEnabled()) return;
+        if (!pending.compareAndSet(false, true)) return;
+        plugin.getServer().getScheduler().runTask(plugin, new Runnable() {
+            public void run() {
+                pending.set(false);
+                update();
+                if (!closed) listener.updatePassives();
+            }
+        });
+    }
+
+    /**
+     * Unregisters all handlers and stops any further updates
+     */
+    void close() {
+        closed = true;
+        for (HandlerGroup group : groups) {
+            if (group.registered) HandlerList.unregisterAll(group.token);
+            group.registered = false;
+        }
+    }
+
+    /**
+     * Handlers that are needed by the same hooks
+     */
+    private static class HandlerGroup {
+
+        /**
+         * Hooks that need the handlers
+         */
+        final int mask;
+
+        /**
+         * Listener the handlers are registered under, used to unregister them again
+         */
+        final Listener token = new Listener() { };
+
+        final List<Handler> handlers = new ArrayList<Handler>();
+
+        boolean registered;
+
+        HandlerGroup(int mask) {
+            this.mask = mask;
+        }
+
+        HandlerGroup add(Handler handler) {
+            handlers.add(handler);
+            return this;
+        }
+    }
+
+    /**
+     * Passes one type of event on to the listener
+     */
+    private abstract static class Handler implements EventExecutor {
+
+        final Class<? extends Event> type;
+
+        final boolean ignoreCancelled;
+
+        Handler(Class<? extends Event> type, boolean ignoreCancelled) {
+            this.type = type;
+            this.ignoreCancelled = ignoreCancelled;
+        }
+
+        public void execute(Listener listener, Event event) {
+            // Subclasses sharing a handler list arrive here too
+            if (type.isInstance(event)) handle(event);
+        }
+
+        abstract void handle(Event event);
+    }
+}
@@ -1,8 +1,9 @@
 package com.rit.sucy.enchanting;
 
 import com.rit.sucy.CustomEnchantment;
+import com.rit.sucy.EffectHook;
 import com.rit.sucy.EnchantmentAPI;
-import com.rit.sucy.service.ENameParser;
+import com.rit.sucy.EnchantmentSet;
 import org.bukkit.ChatColor;
 import org.bukkit.GameMode;
 import org.bukkit.Material;
@@ -17,7 +18,6 @@ import org.bukkit.event.block.BlockBreakEvent;
 import org.bukkit.event.block.BlockDamageEvent;
 import org.bukkit.event.enchantment.EnchantItemEvent;
 import org.bukkit.event.enchantment.PrepareItemEnchantEvent;
-import org.bukkit.event.entity.EntityDamageByBlockEvent;
 import org.bukkit.event.entity.EntityDamageByEntityEvent;
 import org.bukkit.event.entity.EntityDamageEvent;
 import org.bukkit.event.inventory.InventoryClickEvent;
@@ -29,6 +29,7 @@ import org.bukkit.inventory.meta.ItemMeta;
 import org.bukkit.plugin.Plugin;
 
 import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Listens for events and passes them onto enchantments
@@ -61,13 +62,44 @@ public class EListener implements Listener {
     Hashtable<String, ItemStack> storedItems = new Hashtable<String, ItemStack>();
 
     /**
-     * Basic constructor that registers this listener
+     * Registers the effect handlers while they are needed
+     */
+    final EHookRegistrar hooks;
+
+    /**
+     * Calls passive effects of equipped enchantments
+     */
+    final EPassiveWheel passives;
+
+    /**
+     * Checks changed equipment once per tick
+     */
+    final EEquipQueue equipQueue;
+
+    /**
+     * Damage events skipped because the damaged entity had no enchantments
+     */
+    private static final AtomicLong skippedDamage = new AtomicLong();
+
+    /**
+     * Damage events passed on to defensive enchantments
+     */
+    private static final AtomicLong processedDamage = new AtomicLong();
+
+    /**
+     * Basic constructor that registers this listener. The effect handlers
+     * are only registered for hooks used by registered enchantments.
      *
      * @param plugin plugin to register this listener to
      */
     public EListener(Plugin plugin) {
         plugin.getServer().getPluginManager().registerEvents(this, plugin);
         this.plugin = plugin;
+        this.hooks = new EHookRegistrar(this, plugin);
+        hooks.update();
+        this.passives = new EPassiveWheel(plugin);
+        this.equipQueue = new EEquipQueue(plugin, passives);
+        updatePassives();
 
         ItemMeta meta = placeholder.getItemMeta();
         meta.setDisplayName(ChatColor.DARK_GREEN + "Placeholder");
@@ -82,98 +114,121 @@ public class EListener implements Listener {
     }
 
     /**
-     * Event for offensive enchantments
-     *
-     * @param event the event details
+     * Re-evaluates which effect handlers are needed on the next tick.
+     * Called whenever the registered enchantments change.
      */
-    @EventHandler (priority = EventPriority.MONITOR, ignoreCancelled = true)
-    public void onHit(EntityDamageByEntityEvent event) {
-
-        // Rule out cases where enchantments don't apply
-        if (event.getDamager() == event.getEntity()) return;
-        Entity damager = event.getDamager();
-        if (damager instanceof Projectile) damager = ((Projectile) damager).getShooter();
-        if (event.getCause() != EntityDamageEvent.DamageCause.ENTITY_ATTACK
-                && event.getCause() != EntityDamageEvent.DamageCause.PROJECTILE) return;
-        if (!(damager instanceof LivingEntity)) return;
-        if (!(event.getEntity() instanceof LivingEntity)) return;
+    public void hooksChanged() {
+        hooks.scheduleUpdate();
+    }
 
-        // Apply enchantments
-        for (Map.Entry<CustomEnchantment, Integer> entry : getValidEnchantments(getItems((LivingEntity)damager)).entrySet()) {
-            entry.getKey().applyEffect((LivingEntity)damager, (LivingEntity)event.getEntity(), entry.getValue(), event);
+    /**
+     * Schedules the passive enchantments of all online players that
+     * aren't scheduled yet, e.g. after the registered enchantments changed
+     */
+    void updatePassives() {
+        for (Player player : plugin.getServer().getOnlinePlayers()) {
+            passives.update(player);
         }
     }
 
     /**
-     * Event for defensive enchantments
-     *
-     * @param event the event details
+     * Unregisters the effect handlers for good
      */
-    @EventHandler (priority = EventPriority.MONITOR, ignoreCancelled = true)
-    public void onDamaged(EntityDamageByEntityEvent event) {
-
-        // Rule out cases where enchantments don't apply
-        if (event.getDamager() == event.getEntity()) return;
-        if (!(event.getEntity() instanceof LivingEntity)) return;
-
-        // Apply enchantments
-        LivingEntity damaged = (LivingEntity)event.getEntity();
-        LivingEntity damager = event.getDamager() instanceof LivingEntity ? (LivingEntity) event.getDamager()
-                : event.getDamager() instanceof Projectile ? ((Projectile)event.getDamager()).getShooter()
-                : null;
-        for (Map.Entry<CustomEnchantment, Integer> entry : getValidEnchantments(getItems(damaged)).entrySet()) {
-            entry.getKey().applyDefenseEffect(damaged, damager, entry.getValue(), event);
-        }
+    public void close() {
+        hooks.close();
+        equipQueue.cancel();
+        passives.cancel();
     }
 
     /**
-     * Event for defensive enchantments
+     * Single handler for all damage events. Works out the attacker once,
+     * then runs the offensive enchantments of the attacker followed by the
+     * defensive enchantments of the damaged entity, each set read once.
      *
      * @param event the event details
      */
-    @EventHandler (priority = EventPriority.MONITOR, ignoreCancelled = true)
-    public void onDamaged(EntityDamageEvent event) {
+    public void onDamage(EntityDamageEvent event) {
 
         // Rule out cases where enchantments don't apply
         if (!(event.getEntity() instanceof LivingEntity)) return;
-
-        // Apply enchantments
         LivingEntity damaged = (LivingEntity)event.getEntity();
-        for (Map.Entry<CustomEnchantment, Integer> entry : getValidEnchantments(getItems(damaged)).entrySet()) {
-            entry.getKey().applyDefenseEffect(damaged, null, entry.getValue(), event);
+
+        // Find the attacker, if any
+        LivingEntity attacker = null;
+        boolean attack = false;
+        if (event instanceof EntityDamageByEntityEvent) {
+            Entity damager = ((EntityDamageByEntityEvent) event).getDamager();
+            if (damager != damaged) {
+                if (damager instanceof Projectile) damager = ((Projectile) damager).getShooter();
+                if (damager instanceof LivingEntity) attacker = (LivingEntity) damager;
+                attack = attacker != null && (event.getCause() == EntityDamageEvent.DamageCause.ENTITY_ATTACK
+                        || event.getCause() == EntityDamageEvent.DamageCause.PROJECTILE);
+            }
+        }
+
+        // Offensive enchantments of the attacker
+        if (attack && EnchantmentAPI.isHookUsed(EffectHook.OFFENSE)) {
+            EntityDamageByEntityEvent hit = (EntityDamageByEntityEvent) event;
+            EnchantmentSet enchantments = EEquipmentCache.getEnchantments(attacker, EffectHook.OFFENSE);
+            for (int i = 0; i < enchantments.size(); i++) {
+                CustomEnchantment enchantment = enchantments.getEnchantment(i);
+                if (enchantment != null) enchantment.applyEffect(attacker, damaged, enchantments.getLevel(i), hit);
+            }
+        }
+
+        // Defensive enchantments of the damaged entity, skipping entities without enchanted equipment before reading any lore
+        if (EnchantmentAPI.isHookUsed(EffectHook.DEFENSE) && hasDefense(damaged)) {
+            EnchantmentSet enchantments = EEquipmentCache.getEnchantments(damaged, EffectHook.DEFENSE);
+            for (int i = 0; i < enchantments.size(); i++) {
+                CustomEnchantment enchantment = enchantments.getEnchantment(i);
+                if (enchantment != null) enchantment.applyDefenseEffect(damaged, attacker, enchantments.getLevel(i), event);
+            }
         }
     }
 
     /**
-     * Event for defensive enchantments
+     * Cheaply checks if the damaged entity could have defensive
+     * enchantments, counting the damage event as skipped or processed
      *
-     * @param event the event details
+     * @param damaged entity taking damage
+     * @return        true if the enchantments need to be read
      */
-    @EventHandler (priority = EventPriority.MONITOR, ignoreCancelled = true)
-    public void onDamaged(EntityDamageByBlockEvent event) {
-
-        // Rule out cases where enchantments don't apply
-        if (!(event.getEntity() instanceof LivingEntity)) return;
-
-        // Apply enchantments
-        LivingEntity damaged = (LivingEntity)event.getEntity();
-        for (Map.Entry<CustomEnchantment, Integer> entry : getValidEnchantments(getItems(damaged)).entrySet()) {
-            entry.getKey().applyDefenseEffect(damaged, null, entry.getValue(), event);
+    private boolean hasDefense(LivingEntity damaged) {
+        if (!EEquipmentCache.mayHaveEnchantments(damaged)) {
+            skippedDamage.incrementAndGet();
+            return false;
         }
+        processedDamage.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * @return amount of damage events skipped because the entity had no enchantments
+     */
+    public static long getSkippedDamageEvents() {
+        return skippedDamage.get();
     }
 
+    /**
+     * @return amount of damage events passed on to defensive enchantments
+     */
+    public static long getProcessedDamageEvents() {
+        return processedDamage.get();
+    }
 
     /**
      * Event for tool enchantments
      *
      * @param event the event details
      */
-    @EventHandler (priority = EventPriority.MONITOR, ignoreCancelled = true)
     public void onDamageBlock(BlockDamageEvent event) {
+        if (!EnchantmentAPI.isHookUsed(EffectHook.TOOL)) return;
 
         // Apply enchantments
-        for (Map.Entry<CustomEnchantment, Integer> entry : getValidEnchantments(getItems(event.getPlayer())).entrySet()) {
-            entry.getKey().applyToolEffect(event.getPlayer(), event.getBlock(), entry.getValue(), event);
+        EnchantmentSet enchantments = EEquipmentCache.getEnchantments(event.getPlayer(), EffectHook.TOOL);
+        for (int i = 0; i < enchantments.size(); i++) {
+            CustomEnchantment enchantment = enchantments.getEnchantment(i);
+            if (enchantment != null) enchantment.applyToolEffect(event.getPlayer(), event.getBlock(), enchantments.getLevel(i), event);
         }
     }
 
@@ -182,12 +237,14 @@ public class EListener implements Listener {
      *
      * @param event the event details
      */
-    @EventHandler (priority = EventPriority.MONITOR, ignoreCancelled = true)
     public void onBreakBlock(BlockBreakEvent event) {
+        if (!EnchantmentAPI.isHookUsed(EffectHook.TOOL)) return;
 
         // Apply enchantments
-        for (Map.Entry<CustomEnchantment, Integer> entry : getValidEnchantments(getItems(event.getPlayer())).entrySet()) {
-            entry.getKey().applyToolEffect(event.getPlayer(), event.getBlock(), entry.getValue(), event);
+        EnchantmentSet enchantments = EEquipmentCache.getEnchantments(event.getPlayer(), EffectHook.TOOL);
+        for (int i = 0; i < enchantments.size(); i++) {
+            CustomEnchantment enchantment = enchantments.getEnchantment(i);
+            if (enchantment != null) enchantment.applyToolEffect(event.getPlayer(), event.getBlock(), enchantments.getLevel(i), event);
         }
     }
 
@@ -196,15 +253,19 @@ public class EListener implements Listener {
      *
      * @param event the event details
      */
-    @EventHandler (priority = EventPriority.MONITOR)
     public void onInteract(PlayerInteractEvent event) {
 
         // Apply enchantments
-        for (Map.Entry<CustomEnchantment, Integer> entry : getValidEnchantments(getItems(event.getPlayer())).entrySet()) {
-            entry.getKey().applyMiscEffect(event.getPlayer(), entry.getValue(), event);
+        if (EnchantmentAPI.isHookUsed(EffectHook.MISC)) {
+            EnchantmentSet enchantments = EEquipmentCache.getEnchantments(event.getPlayer(), EffectHook.MISC);
+            for (int i = 0; i < enchantments.size(); i++) {
+                CustomEnchantment enchantment = enchantments.getEnchantment(i);
+                if (enchantment != null) enchantment.applyMiscEffect(event.getPlayer(), enchantments.getLevel(i), event);
+            }
         }
 
-        new EEquip(event.getPlayer()).runTaskLater(plugin, 1);
+        // Right clicking can put on armor
+        if (event.hasItem()) equipmentChanged(event.getPlayer());
     }
 
     /**
@@ -212,10 +273,12 @@ public class EListener implements Listener {
      *
      * @param event the event details
      */
-    @EventHandler (priority = EventPriority.MONITOR)
     public void onInteract(PlayerInteractEntityEvent event) {
-        for (Map.Entry<CustomEnchantment, Integer> entry : getValidEnchantments(getItems(event.getPlayer())).entrySet()) {
-            entry.getKey().applyEntityEffect(event.getPlayer(), entry.getValue(), event);
+        if (!EnchantmentAPI.isHookUsed(EffectHook.ENTITY)) return;
+        EnchantmentSet enchantments = EEquipmentCache.getEnchantments(event.getPlayer(), EffectHook.ENTITY);
+        for (int i = 0; i < enchantments.size(); i++) {
+            CustomEnchantment enchantment = enchantments.getEnchantment(i);
+            if (enchantment != null) enchantment.applyEntityEffect(event.getPlayer(), enchantments.getLevel(i), event);
         }
     }
 
@@ -226,7 +289,8 @@ public class EListener implements Listener {
      */
     @EventHandler (priority =  EventPriority.MONITOR, ignoreCancelled = true)
     public void onEquip(InventoryClickEvent event) {
-        new EEquip(plugin.getServer().getPlayer(event.getWhoClicked().getName())).runTaskLater(plugin, 1);
+        Player player = plugin.getServer().getPlayer(event.getWhoClicked().getName());
+        equipmentChanged(player);
     }
 
     /**
@@ -236,7 +300,60 @@ public class EListener implements Listener {
      */
     @EventHandler
     public void onBreak(PlayerItemBreakEvent event) {
-        new EEquip(event.getPlayer()).runTaskLater(plugin, 1);
+        equipmentChanged(event.getPlayer());
+    }
+
+    /**
+     * Switching the held item changes the item in hand
+     *
+     * @param event event details
+     */
+    @EventHandler (priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onHeld(PlayerItemHeldEvent event) {
+        equipmentChanged(event.getPlayer());
+    }
+
+    /**
+     * Picked up items can end up in hand
+     *
+     * @param event event details
+     */
+    @EventHandler (priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPickup(PlayerPickupItemEvent event) {
+        equipmentChanged(event.getPlayer());
+    }
+
+    /**
+     * Dropping items can empty the hand
+     *
+     * @param event event details
+     */
+    @EventHandler (priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onDrop(PlayerDropItemEvent event) {
+        equipmentChanged(event.getPlayer());
+    }
+
+    /**
+     * Respawning starts with a fresh inventory
+     *
+     * @param event event details
+     */
+    @EventHandler (priority = EventPriority.MONITOR)
+    public void onRespawn(PlayerRespawnEvent event) {
+        equipmentChanged(event.getPlayer());
+    }
+
+    /**
+     * Drops the cached equipment of the player. The change an event announces
+     * is only applied after the event, so the player is queued to have the
+     * cache dropped again and equip effects checked on the next tick.
+     *
+     * @param player player whose equipment may have changed
+     */
+    public void equipmentChanged(Player player) {
+        if (player == null) return;
+        EEquipmentCache.invalidate(player);
+        equipQueue.markDirty(player);
     }
 
     /**
@@ -247,6 +364,7 @@ public class EListener implements Listener {
     @EventHandler (priority = EventPriority.MONITOR, ignoreCancelled = true)
     public void onConnect(PlayerJoinEvent event) {
         EEquip.loadPlayer(event.getPlayer());
+        passives.update(event.getPlayer());
     }
 
     /**
@@ -257,6 +375,8 @@ public class EListener implements Listener {
     @EventHandler (priority = EventPriority.MONITOR, ignoreCancelled = true)
     public void onDisconnect(PlayerQuitEvent event) {
         EEquip.clearPlayer(event.getPlayer());
+        passives.remove(event.getPlayer());
+        EEquipmentCache.invalidate(event.getPlayer());
     }
 
     /**
@@ -320,7 +440,7 @@ public class EListener implements Listener {
      * @return     true if can enchant, false otherwise
      */
     boolean canEnchant(ItemStack item) {
-        if (EEnchantTable.getAllValidEnchants(item).size() == 0) return false;
+        if (!EEnchantTable.hasAnyApplicableEnchant(item)) return false;
         else if (item.hasItemMeta() && item.getItemMeta().hasEnchants()) return false;
         else if (EnchantmentAPI.getEnchantments(item).size() > 0) return false;
         return true;
@@ -380,44 +500,4 @@ public class EListener implements Listener {
             event.setCancelled(true);
         }
     }
-
-    /**
-     * Gets a list of valid enchantments from a set of items
-     *
-     * @param items the list of items to check for valid enchantments
-     * @return      the valid enchantments and their corresponding enchantment levels
-     */
-    private Map<CustomEnchantment, Integer> getValidEnchantments(ArrayList<ItemStack> items) {
-        Map<CustomEnchantment, Integer> validEnchantments = new HashMap<CustomEnchantment, Integer>();
-        for (ItemStack item : items) {
-            ItemMeta meta = item.getItemMeta();
-            if (meta == null) continue;
-            if (!meta.hasLore()) continue;
-            for (String lore : meta.getLore()) {
-                String name = ENameParser.parseName(lore);
-                int level = ENameParser.parseLevel(lore);
-                if (name == null) continue;
-                if (level == 0) continue;
-                if (EnchantmentAPI.isRegistered(name)) {
-                    validEnchantments.put(EnchantmentAPI.getEnchantment(name), level);
-                }
-            }
-        }
-        return validEnchantments;
-    }
-
-    /**
-     * Retrieves a list of equipment on the entity that have at least some lore
-     *
-     * @param entity the entity wearing the equipment
-     * @return       the list of all equipment with lore
-     */
-    private ArrayList<ItemStack> getItems(LivingEntity entity) {
-        ItemStack[] armor = entity.getEquipment().getArmorContents();
-        ItemStack weapon = entity.getEquipment().getItemInHand();
-        ArrayList<ItemStack> items = new ArrayList<ItemStack>(Arrays.asList(armor));
-        items.add(weapon);
-
-        return items;
-    }
 }
@@ -0,0 +1,136 @@
+package com.rit.sucy.enchanting;
+
+import com.rit.sucy.CustomEnchantment;
+import com.rit.sucy.EffectHook;
+import com.rit.sucy.EnchantmentAPI;
+import com.rit.sucy.EnchantmentSet;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitRunnable;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Calls the passive effects of the enchantments players have equipped, each
+ * every passive period of its enchantment. Pending calls sit in a timing
+ * wheel, so a tick only looks at the calls due in it. The
+ * first call of each player and enchantment gets its own phase within the
+ * period, spreading the calls over the ticks instead of bursting.
+ * Only used on the main thread.
+ */
+class EPassiveWheel extends BukkitRunnable {
+
+    /**
+     * Pending calls by the tick they are due in
+     */
+    private final ETimingWheel<Call> wheel = new ETimingWheel<Call>();
+
+    /**
+     * Pending call of each player for each enchantment id
+     */
+    private final Map<UUID, Map<Integer, Call>> scheduled = new HashMap<UUID, Map<Integer, Call>>();
+
+    /**
+     * Starts running the wheel every tick
+     *
+     * @param plugin plugin to run the task for
+     */
+    EPassiveWheel(Plugin plugin) {
+        runTaskTimer(plugin, 1, 1);
+    }
+
+    /**
+     * Schedules the passive enchantments on the equipment of the player
+     * that aren't scheduled yet. Removed ones are dropped when they come up.
+     *
+     * @param player player whose equipment may have changed
+     */
+    void update(Player player) {
+        if (!EnchantmentAPI.isHookUsed(EffectHook.PASSIVE)) return;
+        EnchantmentSet enchantments = EEquipmentCache.getEnchantments(player, EffectHook.PASSIVE);
+        if (enchantments.isEmpty()) return;
+        Map<Integer, Call> calls = scheduled.get(player.getUniqueId());
+        if (calls == null) {
+            calls = new HashMap<Integer, Call>();
+            scheduled.put(player.getUniqueId(), calls);
+        }
+        for (int i = 0; i < enchantments.size(); i++) {
+            CustomEnchantment enchantment = enchantments.getEnchantment(i);
+            if (enchantment == null || calls.containsKey(enchantment.getId())) continue;
+            Call call = new Call(player, enchantment.getId());
+            calls.put(call.id, call);
+            int period = enchantment.getPassivePeriod();
+            int phase = ((player.getUniqueId().hashCode() * 31 + call.id) & Integer.MAX_VALUE) % period;
+            wheel.schedule(call, phase + 1);
+        }
+    }
+
+    /**
+     * Forgets the calls of the player, e.g. when leaving
+     *
+     * @param player player to forget
+     */
+    void remove(Player player) {
+        scheduled.remove(player.getUniqueId());
+    }
+
+    /**
+     * @return amount of pending passive calls
+     */
+    int size() {
+        int size = 0;
+        for (Map<Integer, Call> calls : scheduled.values()) {
+            size += calls.size();
+        }
+        return size;
+    }
+
+    /**
+     * Runs the calls due this tick
+     */
+    public void run() {
+        for (Call call : wheel.advance()) {
+            fire(call);
+        }
+    }
+
+    /**
+     * Applies the passive effect if the player still has the
+     * enchantment equipped and schedules the next call. Calls
+     * of players that left or were rescheduled are dropped.
+     */
+    private void fire(Call call) {
+        Map<Integer, Call> calls = scheduled.get(call.player.getUniqueId());
+        if (calls == null || calls.get(call.id) != call) return;
+
+        CustomEnchantment enchantment = EnchantmentAPI.getById(call.id);
+        int level = 0;
+        if (enchantment != null && call.player.isOnline()) {
+            level = EEquipmentCache.getEnchantments(call.player, EffectHook.PASSIVE).levelOf(call.id);
+        }
+        if (level <= 0) {
+            calls.remove(call.id);
+            if (calls.isEmpty()) scheduled.remove(call.player.getUniqueId());
+            return;
+        }
+        enchantment.applyPassiveEffect(call.player, level);
+        wheel.schedule(call, enchantment.getPassivePeriod());
+    }
+
+    /**
+     * Pending passive effect of one enchantment for one player
+     */
+    private static class Call {
+
+        final Player player;
+
+        final int id;
+
+        Call(Player player, int id) {
+            this.player = player;
+            this.id = id;
+        }
+    }
+}
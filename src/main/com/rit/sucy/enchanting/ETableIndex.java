@@ -0,0 +1,282 @@
+package com.rit.sucy.enchanting;
+
+import com.rit.sucy.CustomEnchantment;
+import com.rit.sucy.EnchantmentAPI;
+import com.rit.sucy.service.MaterialClass;
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemStack;
+
+import java.util.*;
+
+/**
+ * Enabled enchantments by the materials they can be enchanted onto at an
+ * enchanting table, along with alias tables for drawing them by weight
+ * and the conflicts between them.
+ * Built once per registry generation so the table doesn't have to check
+ * every enchantment against the item on each click. Enchantments overriding
+ * canEnchantOnto can't be sorted by material and are checked against the
+ * item on each lookup instead.
+ */
+class ETableIndex {
+
+    /**
+     * Index of the last generation that was asked for
+     */
+    private static volatile ETableIndex current;
+
+    /**
+     * Shared empty result
+     */
+    private static final CustomEnchantment[] NONE = new CustomEnchantment[0];
+
+    /**
+     * Shared table nothing can be drawn from
+     */
+    private static final EAliasTable EMPTY_TABLE = new EAliasTable(NONE, new int[0]);
+
+    /**
+     * Registry generation this index was built from
+     */
+    final long generation;
+
+    /**
+     * Enchantments that can go onto each material
+     */
+    private final EnumMap<Material, CustomEnchantment[]> byMaterial = new EnumMap<Material, CustomEnchantment[]>(Material.class);
+
+    /**
+     * Weighted draws of the enchantments for each material
+     */
+    private final EnumMap<Material, EAliasTable> tables = new EnumMap<Material, EAliasTable>(Material.class);
+
+    /**
+     * Enabled enchantments deciding themselves which items they go onto
+     */
+    private final CustomEnchantment[] dynamic;
+
+    /**
+     * All enabled enchantments, these can go onto books
+     */
+    private final CustomEnchantment[] all;
+
+    /**
+     * Weighted draws of all enabled enchantments
+     */
+    private final EAliasTable allTable;
+
+    /**
+     * Conflicts between the enabled enchantments
+     */
+    private final EConflictMatrix conflicts;
+
+    /**
+     * Weights of the enabled enchantments by id and MaterialClass ordinal
+     */
+    private final int[][] weights;
+
+    /**
+     * Builds the index for the given enchantments
+     *
+     * @param generation   registry generation of the enchantments
+     * @param enchantments registered enchantments
+     * @param idCount      amount of enchantment ids given out
+     */
+    ETableIndex(long generation, Collection<CustomEnchantment> enchantments, int idCount) {
+        this.generation = generation;
+
+        Map<Material, List<CustomEnchantment>> lists = new EnumMap<Material, List<CustomEnchantment>>(Material.class);
+        List<CustomEnchantment> enabled = new ArrayList<CustomEnchantment>();
+        List<CustomEnchantment> dynamicList = new ArrayList<CustomEnchantment>();
+        for (CustomEnchantment enchantment : enchantments) {
+            if (!enchantment.isEnabled()) continue;
+            enabled.add(enchantment);
+            if (overridesCanEnchantOnto(enchantment)) {
+                dynamicList.add(enchantment);
+                continue;
+            }
+            Material[] materials = enchantment.getNaturalMaterials();
+            if (materials == null) continue;
+            for (Material material : materials) {
+                List<CustomEnchantment> list = lists.get(material);
+                if (list == null) {
+                    list = new ArrayList<CustomEnchantment>();
+                    lists.put(material, list);
+                }
+                if (!list.contains(enchantment)) list.add(enchantment);
+            }
+        }
+        weights = new int[idCount][];
+        MaterialClass[] classes = MaterialClass.values();
+        for (CustomEnchantment enchantment : enabled) {
+            int id = enchantment.getId();
+            if (id < 0 || id >= idCount) continue;
+            weights[id] = new int[classes.length];
+            for (MaterialClass materialClass : classes) {
+                weights[id][materialClass.ordinal()] = enchantment.getWeight(materialClass);
+            }
+        }
+
+        for (Map.Entry<Material, List<CustomEnchantment>> entry : lists.entrySet()) {
+            List<CustomEnchantment> list = entry.getValue();
+            CustomEnchantment[] array = list.toArray(new CustomEnchantment[list.size()]);
+            byMaterial.put(entry.getKey(), array);
+            tables.put(entry.getKey(), tableOf(array, MaterialClass.getFor(entry.getKey())));
+        }
+        dynamic = dynamicList.toArray(new CustomEnchantment[dynamicList.size()]);
+        all = enabled.toArray(new CustomEnchantment[enabled.size()]);
+        allTable = tableOf(all, MaterialClass.getFor(Material.BOOK));
+        conflicts = new EConflictMatrix(enabled, idCount);
+    }
+
+    /**
+     * Checks if the class of the enchantment overrides canEnchantOnto
+     *
+     * @param enchantment enchantment to check
+     * @return            true if it has to be asked about each item
+     */
+    static boolean overridesCanEnchantOnto(CustomEnchantment enchantment) {
+        try {
+            return enchantment.getClass().getMethod("canEnchantOnto", ItemStack.class).getDeclaringClass() != CustomEnchantment.class;
+        }
+        catch (NoSuchMethodException e) {
+            // Can't tell, so better ask
+            return true;
+        }
+    }
+
+    /**
+     * Builds the weighted draws for the enchantments on items of the MaterialClass
+     */
+    private EAliasTable tableOf(CustomEnchantment[] enchantments, MaterialClass materialClass) {
+        int[] weights = new int[enchantments.length];
+        for (int i = 0; i < enchantments.length; i++) {
+            weights[i] = getWeight(enchantments[i], materialClass);
+        }
+        return new EAliasTable(enchantments, weights);
+    }
+
+    /**
+     * Gets the weight of an enchantment on items of the MaterialClass
+     *
+     * @param enchantment   enabled enchantment
+     * @param materialClass MaterialClass of the item
+     * @return              weight of the enchantment
+     */
+    int getWeight(CustomEnchantment enchantment, MaterialClass materialClass) {
+        int id = enchantment.getId();
+        if (id >= 0 && id < weights.length && weights[id] != null) return weights[id][materialClass.ordinal()];
+        return enchantment.getWeight(materialClass);
+    }
+
+    /**
+     * Gets the index for the current registry generation, building it if needed
+     *
+     * @return up to date index
+     */
+    static ETableIndex get() {
+        long generation = EnchantmentAPI.getRegistryGeneration();
+        ETableIndex index = current;
+        if (index == null || index.generation != generation) {
+            index = new ETableIndex(generation, EnchantmentAPI.getEnchantments(), EnchantmentAPI.getIdCount());
+            current = index;
+        }
+        return index;
+    }
+
+    /**
+     * Gets the enchantments that can be applied to the material by their
+     * natural materials, leaving out those overriding canEnchantOnto.
+     * The returned array is shared and must not be modified.
+     *
+     * @param material material of the item
+     * @return         applicable enchantments, empty if there are none
+     */
+    CustomEnchantment[] getEnchantments(Material material) {
+        if (material == Material.BOOK) return all;
+        CustomEnchantment[] enchantments = byMaterial.get(material);
+        return enchantments == null ? NONE : enchantments;
+    }
+
+    /**
+     * Gets the enchantments that can be applied to the item, asking
+     * enchantments overriding canEnchantOnto about the item itself.
+     * The returned array may be shared and must not be modified.
+     *
+     * @param item item to enchant
+     * @return     applicable enchantments, empty if there are none
+     */
+    CustomEnchantment[] getEnchantments(ItemStack item) {
+        CustomEnchantment[] enchantments = getEnchantments(item.getType());
+        if (dynamic.length == 0 || item.getType() == Material.BOOK) return enchantments;
+        List<CustomEnchantment> extra = null;
+        for (CustomEnchantment enchantment : dynamic) {
+            if (!enchantment.canEnchantOnto(item)) continue;
+            if (extra == null) extra = new ArrayList<CustomEnchantment>();
+            extra.add(enchantment);
+        }
+        if (extra == null) return enchantments;
+        CustomEnchantment[] result = Arrays.copyOf(enchantments, enchantments.length + extra.size());
+        for (int i = 0; i < extra.size(); i++) {
+            result[enchantments.length + i] = extra.get(i);
+        }
+        return result;
+    }
+
+    /**
+     * Gets the weighted draws of the enchantments that can be applied to
+     * the material by their natural materials
+     *
+     * @param material material of the item
+     * @return         alias table, empty if nothing can be drawn
+     */
+    EAliasTable getTable(Material material) {
+        if (material == Material.BOOK) return allTable;
+        EAliasTable table = tables.get(material);
+        return table == null ? EMPTY_TABLE : table;
+    }
+
+    /**
+     * Gets the weighted draws of the enchantments that can be applied to the
+     * item. Only builds a new table when an enchantment overriding
+     * canEnchantOnto accepts the item.
+     *
+     * @param item item to enchant
+     * @return     alias table, empty if nothing can be drawn
+     */
+    EAliasTable getTable(ItemStack item) {
+        CustomEnchantment[] enchantments = getEnchantments(item);
+        if (enchantments == getEnchantments(item.getType())) return getTable(item.getType());
+        return tableOf(enchantments, MaterialClass.getFor(item.getType()));
+    }
+
+    /**
+     * @return conflicts between the enabled enchantments
+     */
+    EConflictMatrix getConflicts() {
+        return conflicts;
+    }
+
+    /**
+     * Checks if any enchantment can be applied to the material
+     *
+     * @param material material of the item
+     * @return         true if at least one enchantment applies
+     */
+    boolean hasAny(Material material) {
+        return getEnchantments(material).length > 0;
+    }
+
+    /**
+     * Checks if any enchantment can be applied to the item
+     *
+     * @param item item to check
+     * @return     true if at least one enchantment applies
+     */
+    boolean hasAny(ItemStack item) {
+        if (hasAny(item.getType())) return true;
+        for (CustomEnchantment enchantment : dynamic) {
+            if (enchantment.canEnchantOnto(item)) return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,118 @@
+package com.rit.sucy.enchanting;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hashed timing wheel of tick buckets. Scheduled items sit in the bucket of
+ * the tick they are due in, so advancing a tick only looks at that bucket.
+ * Delays longer than the wheel wait whole turns in their bucket.
+ *
+ * @param <T> type of the scheduled items
+ */
+class ETimingWheel<T> {
+
+    /**
+     * Amount of buckets, a power of two
+     */
+    static final int SIZE = 64;
+
+    /**
+     * Mask turning a tick into its bucket
+     */
+    private static final int MASK = SIZE - 1;
+
+    /**
+     * Entries due in each tick of a turn
+     */
+    private final ArrayList<Entry<T>>[] buckets;
+
+    /**
+     * Empty list swapped in for the bucket being advanced
+     */
+    private ArrayList<Entry<T>> spare = new ArrayList<Entry<T>>();
+
+    /**
+     * Items due in the last advanced tick
+     */
+    private final ArrayList<T> due = new ArrayList<T>();
+
+    /**
+     * Tick last advanced to
+     */
+    private long now;
+
+    /**
+     * Creates an empty wheel at tick 0
+     */
+    @SuppressWarnings("unchecked")
+    ETimingWheel() {
+        buckets = new ArrayList[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            buckets[i] = new ArrayList<Entry<T>>();
+        }
+    }
+
+    /**
+     * Schedules an item the given amount of ticks after the current one
+     *
+     * @param item  item to schedule
+     * @param delay ticks until it is due, at least 1
+     */
+    void schedule(T item, int delay) {
+        if (delay < 1) delay = 1;
+        buckets[(int) ((now + delay) & MASK)].add(new Entry<T>(item, (delay - 1) / SIZE));
+    }
+
+    /**
+     * Advances to the next tick. Items scheduled while going through
+     * the result end up in later ticks.
+     *
+     * @return items due in the new tick, only valid until the next advance
+     */
+    List<T> advance() {
+        now++;
+        due.clear();
+        int index = (int) (now & MASK);
+        ArrayList<Entry<T>> bucket = buckets[index];
+        if (bucket.isEmpty()) return due;
+
+        // Entries still waiting whole turns go into the fresh bucket
+        buckets[index] = spare;
+        spare = bucket;
+        for (Entry<T> entry : bucket) {
+            if (entry.rounds > 0) {
+                entry.rounds--;
+                buckets[index].add(entry);
+            }
+            else due.add(entry.item);
+        }
+        bucket.clear();
+        return due;
+    }
+
+    /**
+     * @return tick last advanced to
+     */
+    long getTick() {
+        return now;
+    }
+
+    /**
+     * Scheduled item with the turns it still has to wait
+     */
+    private static class Entry<T> {
+
+        final T item;
+
+        /**
+         * Whole turns of the wheel left before the item is due
+         */
+        int rounds;
+
+        Entry(T item, int rounds) {
+            this.item = item;
+            this.rounds = rounds;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.rit.sucy.enchanting;
+
+import com.rit.sucy.CustomEnchantment;
+
+import java.util.Random;
+
+/**
+ * Weighted candidates for one enchanting that shrinks as enchantments
+ * are chosen. After each pick everything conflicting with it is taken
+ * out, so every draw returns an enchantment that can be added and the
+ * odds of the rest stay in proportion to their weights.
+ */
+class EWeightedPool {
+
+    /**
+     * Candidate enchantments
+     */
+    private final CustomEnchantment[] enchantments;
+
+    /**
+     * Weights of the candidates, 0 once taken out
+     */
+    private final int[] weights;
+
+    /**
+     * Sum of the remaining weights
+     */
+    private long total;
+
+    /**
+     * Creates a pool of the enchantments with the given weights
+     *
+     * @param enchantments candidate enchantments
+     * @param weights      weight of each candidate, copied
+     */
+    EWeightedPool(CustomEnchantment[] enchantments, int[] weights) {
+        this.enchantments = enchantments;
+        this.weights = new int[weights.length];
+        for (int i = 0; i < weights.length; i++) {
+            this.weights[i] = Math.max(weights[i], 0);
+            total += this.weights[i];
+        }
+    }
+
+    /**
+     * @return true if nothing can be drawn anymore
+     */
+    boolean isEmpty() {
+        return total == 0;
+    }
+
+    /**
+     * Draws one of the remaining enchantments
+     *
+     * @param random random number source
+     * @return       the drawn enchantment or null if the pool is empty
+     */
+    CustomEnchantment draw(Random random) {
+        if (total == 0) return null;
+        long value = total <= Integer.MAX_VALUE ? random.nextInt((int) total) : (long) (random.nextDouble() * total);
+        for (int i = 0; i < weights.length; i++) {
+            value -= weights[i];
+            if (value < 0) return enchantments[i];
+        }
+        // Only reachable through rounding, fall back to the last candidate left
+        for (int i = weights.length - 1; i >= 0; i--) {
+            if (weights[i] > 0) return enchantments[i];
+        }
+        return null;
+    }
+
+    /**
+     * Takes out every candidate conflicting with the chosen enchantment,
+     * including the chosen enchantment itself
+     *
+     * @param conflicts conflicts between the enchantments
+     * @param chosen    enchantment that was chosen
+     */
+    void removeConflicts(EConflictMatrix conflicts, CustomEnchantment chosen) {
+        int id = chosen.getId();
+        for (int i = 0; i < weights.length; i++) {
+            if (weights[i] == 0) continue;
+            if (enchantments[i] == chosen || conflicts.conflicts(id, enchantments[i].getId())) {
+                total -= weights[i];
+                weights[i] = 0;
+            }
+        }
+    }
+}
@@ -1,15 +1,13 @@
 package com.rit.sucy.enchanting;
 
 import com.rit.sucy.CustomEnchantment;
+import com.rit.sucy.service.ELevelCurve;
 import com.rit.sucy.service.MaterialClass;
 import org.bukkit.Material;
 import org.bukkit.enchantments.Enchantment;
 import org.bukkit.inventory.ItemStack;
 
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import java.util.*;
 
 /**
  * @author Diemex
@@ -33,6 +31,7 @@ public class VanillaEnchantment extends CustomEnchantment
         super(name, new Material[] {}, weight); //we override the method
         this.vanilla = vanilla;
         this.expLevels = expLevels;
+        this.levelCurve = ELevelCurve.fromThresholds(expLevels);
 
         this.weight = new HashMap<MaterialClass, Integer>();
         this.weight.put(MaterialClass.DEFAULT, weight);
@@ -65,29 +64,53 @@ public class VanillaEnchantment extends CustomEnchantment
      * @return all enchantable Materials
      */
     public Material[] getAllEnchantableMaterials() {
-        List<Material> materials = new ArrayList<Material>();
-        //Quick, dirty, effective if there is no method in the API
-        for (Material material : Material.values())
-        {
-            if (material != Material.AIR) //NPE
-                if (vanilla.canEnchantItem(new ItemStack(material)))
-                    materials.add(material);
-        }
+        Set<Material> materials = getEnchantableMaterials(vanilla);
         return materials.toArray(new Material[materials.size()]);
     }
 
     /**
-     * Gets the level of the vanilla enchantment with the given index
+     * Get all the Materials onto which a vanilla enchantment can be applied by default.
+     * Worked out once for all enchantments the first time it is needed.
      *
-     * @param expLevel modified exp level
-     * @return         level of enchantment
+     * @param enchantment vanilla enchantment
+     * @return            unmodifiable set of enchantable Materials
      */
-    @Override
-    public int getEnchantmentLevel(int expLevel) {
-        for (int i = expLevels.length - 1; i >= 0; i--) {
-            if (expLevel >= expLevels[i]) return i + 1;
+    public static Set<Material> getEnchantableMaterials(Enchantment enchantment) {
+        Set<Material> materials = Compatibility.MATERIALS.get(enchantment);
+        return materials == null ? Collections.<Material>emptySet() : materials;
+    }
+
+    /**
+     * Which Materials every vanilla enchantment can be applied to,
+     * loaded by the JVM when first used
+     */
+    private static class Compatibility {
+
+        static final Map<Enchantment, Set<Material>> MATERIALS = scan();
+
+        /**
+         * Checks every enchantment against one item of every Material.
+         * Quick, dirty, effective if there is no method in the API
+         */
+        private static Map<Enchantment, Set<Material>> scan() {
+            Enchantment[] enchantments = Enchantment.values();
+            List<EnumSet<Material>> sets = new ArrayList<EnumSet<Material>>(enchantments.length);
+            for (int i = 0; i < enchantments.length; i++) {
+                sets.add(EnumSet.noneOf(Material.class));
+            }
+            for (Material material : Material.values()) {
+                if (material == Material.AIR) continue; //NPE
+                ItemStack item = new ItemStack(material);
+                for (int i = 0; i < enchantments.length; i++) {
+                    if (enchantments[i] != null && enchantments[i].canEnchantItem(item)) sets.get(i).add(material);
+                }
+            }
+            Map<Enchantment, Set<Material>> result = new HashMap<Enchantment, Set<Material>>();
+            for (int i = 0; i < enchantments.length; i++) {
+                if (enchantments[i] != null) result.put(enchantments[i], Collections.unmodifiableSet(sets.get(i)));
+            }
+            return result;
         }
-        return 1;
     }
 
     @Override
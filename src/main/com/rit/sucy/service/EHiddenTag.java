@@ -0,0 +1,190 @@
+package com.rit.sucy.service;
+
+import com.rit.sucy.CustomEnchantment;
+import org.bukkit.ChatColor;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Invisible tag in front of enchantment lore that stores the enchantment
+ * and its level as color codes, so reading it back doesn't need the name
+ * to be parsed. The visible part stays the same as untagged lore:
+ * <pre>
+ * &sect;e&sect;a + 8 hex digits of the id + 4 hex digits of the level + &sect;7Name Level
+ * </pre>
+ * The id is a hash of the upper case name, so it's the same on every server.
+ */
+public class EHiddenTag {
+
+    /**
+     * Characters every tag starts with
+     */
+    static final String MARKER = ChatColor.COLOR_CHAR + "e" + ChatColor.COLOR_CHAR + "a";
+
+    /**
+     * Amount of hex digits storing the id
+     */
+    static final int ID_DIGITS = 8;
+
+    /**
+     * Amount of hex digits storing the level
+     */
+    static final int LEVEL_DIGITS = 4;
+
+    /**
+     * Amount of characters taken by a whole tag
+     */
+    public static final int LENGTH = MARKER.length() + (ID_DIGITS + LEVEL_DIGITS) * 2;
+
+    /**
+     * Whether new lore gets written with tags
+     */
+    private static volatile boolean enabled = false;
+
+    /**
+     * Sorted ids of the enchantments in this index
+     */
+    private final int[] ids;
+
+    /**
+     * Enchantments in the order of the ids, null if two names share an id
+     */
+    private final CustomEnchantment[] values;
+
+    /**
+     * Builds an index to decode tags of the given enchantments
+     *
+     * @param enchantments enchantments to include
+     */
+    public EHiddenTag(Collection<CustomEnchantment> enchantments) {
+        CustomEnchantment[] sorted = enchantments.toArray(new CustomEnchantment[enchantments.size()]);
+        long[] keys = new long[sorted.length];
+        for (int i = 0; i < sorted.length; i++) {
+            keys[i] = ((long) idOf(sorted[i]) << 32) | i;
+        }
+        Arrays.sort(keys);
+
+        int[] ids = new int[sorted.length];
+        CustomEnchantment[] values = new CustomEnchantment[sorted.length];
+        int size = 0;
+        for (long key : keys) {
+            int id = (int) (key >> 32);
+            CustomEnchantment enchantment = sorted[(int) key];
+            if (size > 0 && ids[size - 1] == id) {
+                // Two names with the same hash, these have to be read by name
+                values[size - 1] = null;
+                continue;
+            }
+            ids[size] = id;
+            values[size++] = enchantment;
+        }
+        this.ids = Arrays.copyOf(ids, size);
+        this.values = Arrays.copyOf(values, size);
+    }
+
+    /**
+     * Gets the enchantment stored in the tag of a lore line
+     *
+     * @param lore lore line to check
+     * @return     the enchantment or null if there is no valid tag
+     */
+    public CustomEnchantment match(String lore) {
+        if (!isTagged(lore)) return null;
+        int index = Arrays.binarySearch(ids, (int) readHex(lore, MARKER.length(), ID_DIGITS));
+        return index < 0 ? null : values[index];
+    }
+
+    /**
+     * Turns lore writing with tags on or off. Tagged lore is always read.
+     *
+     * @param enabled true to write tags
+     */
+    public static void setEnabled(boolean enabled) {
+        EHiddenTag.enabled = enabled;
+    }
+
+    /**
+     * @return whether new lore gets written with tags
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Gets the id stored in tags of the enchantment
+     *
+     * @param enchantment enchantment to get the id for
+     * @return            hash of the upper case name
+     */
+    public static int idOf(CustomEnchantment enchantment) {
+        String name = enchantment.name();
+        int hash = 0;
+        for (int i = 0; i < name.length(); i++) {
+            hash = 31 * hash + Character.toUpperCase(name.charAt(i));
+        }
+        return hash;
+    }
+
+    /**
+     * Checks if the lore line starts with a tag
+     *
+     * @param lore lore line to check
+     * @return     true if it is tagged
+     */
+    public static boolean isTagged(String lore) {
+        if (lore.length() < LENGTH || !lore.startsWith(MARKER)) return false;
+        for (int i = MARKER.length(); i < LENGTH; i += 2) {
+            if (lore.charAt(i) != ChatColor.COLOR_CHAR || Character.digit(lore.charAt(i + 1), 16) < 0) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Gets the level stored in the tag of a lore line
+     *
+     * @param lore tagged lore line
+     * @return     enchantment level
+     */
+    public static int levelOf(String lore) {
+        return (int) readHex(lore, MARKER.length() + ID_DIGITS * 2, LEVEL_DIGITS);
+    }
+
+    /**
+     * Creates the lore line for an enchantment, tagged if tags are enabled
+     *
+     * @param enchantment enchantment to write
+     * @param level       level of the enchantment
+     * @return            lore line
+     */
+    public static String loreOf(CustomEnchantment enchantment, int level) {
+        String visible = ChatColor.GRAY + enchantment.name() + " " + ERomanNumeral.numeralOf(level);
+        if (!enabled || level >= 1 << LEVEL_DIGITS * 4) return visible;
+
+        StringBuilder builder = new StringBuilder(LENGTH + visible.length());
+        builder.append(MARKER);
+        writeHex(builder, idOf(enchantment) & 0xFFFFFFFFL, ID_DIGITS);
+        writeHex(builder, level, LEVEL_DIGITS);
+        return builder.append(visible).toString();
+    }
+
+    /**
+     * Writes a number as color coded hex digits
+     */
+    private static void writeHex(StringBuilder builder, long value, int digits) {
+        for (int i = digits - 1; i >= 0; i--) {
+            builder.append(ChatColor.COLOR_CHAR).append(Character.forDigit((int) (value >> i * 4) & 0xF, 16));
+        }
+    }
+
+    /**
+     * Reads color coded hex digits
+     */
+    private static long readHex(String lore, int start, int digits) {
+        long value = 0;
+        for (int i = 0; i < digits; i++) {
+            value = value << 4 | Character.digit(lore.charAt(start + i * 2 + 1), 16);
+        }
+        return value;
+    }
+}
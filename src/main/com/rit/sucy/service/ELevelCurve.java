@@ -0,0 +1,102 @@
+package com.rit.sucy.service;
+
+import org.apache.commons.lang.Validate;
+
+import java.util.Arrays;
+
+/**
+ * Maps the modified experience level of an enchanting to the level of an
+ * enchantment. Curves are described by thresholds or a linear formula and
+ * compiled into a lookup array, so resolving a level is one array access.
+ */
+public class ELevelCurve {
+
+    /**
+     * Highest modified experience level that gets its own entry, anything
+     * above uses this entry. The enchanting table stays well below it.
+     */
+    public static final int MAX_EXP = 127;
+
+    /**
+     * Level for each modified experience level from 0 to MAX_EXP
+     */
+    private final int[] levels;
+
+    /**
+     * Constructor
+     *
+     * @param levels level for each modified experience level
+     */
+    private ELevelCurve(int[] levels) {
+        this.levels = levels;
+    }
+
+    /**
+     * Creates a curve from the experience needed for each level.
+     * The first value is the experience needed for level 1, the second
+     * for level 2 and so on. Below the first value the level is 1.
+     *
+     * @param thresholds experience needed for each level, in ascending order
+     * @return           compiled curve
+     */
+    public static ELevelCurve fromThresholds(int ... thresholds) {
+        Validate.notNull(thresholds);
+        Validate.isTrue(thresholds.length > 0, "A curve needs at least one level!");
+        for (int i = 1; i < thresholds.length; i++) {
+            Validate.isTrue(thresholds[i] >= thresholds[i - 1], "Thresholds have to be in ascending order!");
+        }
+
+        int[] levels = new int[MAX_EXP + 1];
+        int level = 0;
+        for (int exp = 0; exp <= MAX_EXP; exp++) {
+            while (level < thresholds.length && exp >= thresholds[level]) level++;
+            levels[exp] = Math.max(level, 1);
+        }
+        return new ELevelCurve(levels);
+    }
+
+    /**
+     * Creates a curve that starts at level 1 and goes up
+     * one level every step experience levels until the maximum
+     *
+     * @param start    experience needed for level 1
+     * @param step     experience needed for each further level
+     * @param maxLevel highest level
+     * @return         compiled curve
+     */
+    public static ELevelCurve linear(int start, int step, int maxLevel) {
+        Validate.isTrue(step > 0, "Step has to be positive!");
+        Validate.isTrue(maxLevel > 0, "Max level has to be positive!");
+        int[] thresholds = new int[maxLevel];
+        for (int i = 0; i < maxLevel; i++) {
+            thresholds[i] = start + i * step;
+        }
+        return fromThresholds(thresholds);
+    }
+
+    /**
+     * Gets the level for the modified experience level
+     *
+     * @param exp modified experience level, clamped to 0 through MAX_EXP
+     * @return    enchantment level
+     */
+    public int levelFor(int exp) {
+        return levels[exp < 0 ? 0 : exp > MAX_EXP ? MAX_EXP : exp];
+    }
+
+    /**
+     * @return the highest level of the curve
+     */
+    public int getMaxLevel() {
+        return levels[MAX_EXP];
+    }
+
+    /**
+     * Gets the whole curve
+     *
+     * @return copy of the level for each experience level from 0 to MAX_EXP
+     */
+    public int[] toArray() {
+        return Arrays.copyOf(levels, levels.length);
+    }
+}
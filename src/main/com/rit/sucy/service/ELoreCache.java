@@ -0,0 +1,179 @@
+package com.rit.sucy.service;
+
+import com.rit.sucy.CustomEnchantment;
+import com.rit.sucy.EnchantmentAPI;
+import com.rit.sucy.EnchantmentSet;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.ItemMeta;
+
+import java.util.*;
+
+/**
+ * Caches the enchantments parsed from item lore so that the same lore
+ * doesn't have to be split and looked up again on every event.
+ * Entries are addressed by the content of the lore list, so any item
+ * carrying the same lore shares one parsed result.
+ */
+public class ELoreCache {
+
+    /**
+     * Maximum amount of distinct lore lists that are kept
+     */
+    static final int MAX_SIZE = 512;
+
+    /**
+     * Parsed results, least recently used first
+     */
+    private static final LinkedHashMap<List<String>, EnchantmentSet> cache =
+            new LinkedHashMap<List<String>, EnchantmentSet>(MAX_SIZE * 4 / 3 + 1, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<List<String>, EnchantmentSet> eldest) {
+                    return size() > MAX_SIZE;
+                }
+            };
+
+    /**
+     * Registry generation the cached results were parsed with
+     */
+    private static long generation = -1;
+
+    /**
+     * Amount of lookups answered from the cache
+     */
+    private static long hits;
+
+    /**
+     * Amount of lookups that had to parse the lore
+     */
+    private static long misses;
+
+    /**
+     * Gets the custom enchantments on the item
+     *
+     * @param item item to check
+     * @return     unmodifiable map of enchantments and their levels
+     */
+    public static Map<CustomEnchantment, Integer> getEnchantments(ItemStack item) {
+        return getEnchantmentSet(item).toMap();
+    }
+
+    /**
+     * Gets the custom enchantments on the item
+     *
+     * @param item item to check
+     * @return     set of enchantments and their levels
+     */
+    public static EnchantmentSet getEnchantmentSet(ItemStack item) {
+        if (item == null || !item.hasItemMeta()) return EnchantmentSet.EMPTY;
+        ItemMeta meta = item.getItemMeta();
+        if (!meta.hasLore()) return EnchantmentSet.EMPTY;
+        return getEnchantmentSet(meta.getLore());
+    }
+
+    /**
+     * Gets the custom enchantments described by the lore
+     *
+     * @param lore lore of an item
+     * @return     set of enchantments and their levels
+     */
+    public static synchronized EnchantmentSet getEnchantmentSet(List<String> lore) {
+        long current = EnchantmentAPI.getRegistryGeneration();
+        if (current != generation) {
+            // Names may resolve differently now
+            cache.clear();
+            generation = current;
+        }
+        EnchantmentSet result = cache.get(lore);
+        if (result != null) {
+            hits++;
+            return result;
+        }
+        misses++;
+        result = parse(lore);
+        cache.put(new ArrayList<String>(lore), result);
+        return result;
+    }
+
+    /**
+     * Parses the lore without looking at the cache. Each line is read once,
+     * the level coming from the same tag or name match as the enchantment.
+     *
+     * @param lore lore of an item
+     * @return     set of enchantments and their levels
+     */
+    static EnchantmentSet parse(List<String> lore) {
+        EnchantmentSet.Builder builder = null;
+        for (String line : lore) {
+            int level;
+            CustomEnchantment enchantment = EnchantmentAPI.matchHiddenTag(line);
+            if (enchantment != null) level = EHiddenTag.levelOf(line);
+            else {
+                int levelStart = ENameParser.levelStart(line);
+                if (levelStart < 1) continue;
+                enchantment = EnchantmentAPI.matchEnchantment(line, levelStart - 1);
+                if (enchantment == null) continue;
+                level = ENameParser.parseLevel(line, levelStart);
+            }
+            if (level == 0) continue;
+            if (builder == null) builder = new EnchantmentSet.Builder();
+            builder.put(enchantment, level);
+        }
+        return builder == null ? EnchantmentSet.EMPTY : builder.build();
+    }
+
+    /**
+     * Gets the registered enchantment a single lore line stands for,
+     * reading its hidden tag if it has one
+     *
+     * @param line lore line
+     * @return     the enchantment or null if the line isn't an enchantment
+     */
+    public static CustomEnchantment enchantmentOf(String line) {
+        CustomEnchantment enchantment = EnchantmentAPI.matchHiddenTag(line);
+        if (enchantment != null) return enchantment;
+
+        int levelStart = ENameParser.levelStart(line);
+        if (levelStart < 1) return null;
+        return EnchantmentAPI.matchEnchantment(line, levelStart - 1);
+    }
+
+    /**
+     * Gets the enchantment level of a single lore line
+     *
+     * @param line lore line
+     * @return     the level or 0 if there is none
+     */
+    public static int levelOf(String line) {
+        if (EnchantmentAPI.matchHiddenTag(line) != null) return EHiddenTag.levelOf(line);
+        return ENameParser.parseLevel(line, ENameParser.levelStart(line));
+    }
+
+    /**
+     * Removes all cached results. This happens on its own
+     * whenever the registered enchantments change.
+     */
+    public static synchronized void clear() {
+        cache.clear();
+    }
+
+    /**
+     * @return amount of lookups answered from the cache
+     */
+    public static synchronized long getHits() {
+        return hits;
+    }
+
+    /**
+     * @return amount of lookups that had to parse the lore
+     */
+    public static synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * @return amount of lore lists currently cached
+     */
+    public static synchronized int size() {
+        return cache.size();
+    }
+}
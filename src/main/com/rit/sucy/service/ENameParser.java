@@ -15,16 +15,7 @@ public class ENameParser {
      * @return     enchantment name
      */
     public static String parseName(String lore) {
-        if (!lore.contains(" ")) return null;
-
-        String[] pieces = lore.split(" ");
-
-        String name = "";
-        for (int i = 0; i < pieces.length - 1; i++) {
-            name += pieces[i] + (i < pieces.length - 2 ? " " : "");
-        }
-        name = ChatColor.stripColor(name);
-        return name;
+        return parseName(lore, levelStart(lore));
     }
 
     /**
@@ -33,10 +24,88 @@ public class ENameParser {
      * @return     enchantment name
      */
     public static int parseLevel(String lore) {
-        if (!lore.contains(" ")) return 0;
+        return parseLevel(lore, levelStart(lore));
+    }
+
+    /**
+     * Finds where the level of the enchantment starts in a lore string.
+     * The level is the last word of the line, trailing spaces are ignored.
+     * The name ends right before the space in front of that index.
+     *
+     * @param lore the lore string to scan
+     * @return     index of the first character of the level, -1 if the lore can't hold an enchantment
+     */
+    public static int levelStart(String lore) {
+        int end = levelEnd(lore);
+        if (end == 0) return -1;
+        for (int i = end - 1; i >= 0; i--) {
+            if (lore.charAt(i) == ' ') return i + 1;
+        }
+        // Only trailing spaces, so the whole line is the level
+        return end < lore.length() ? 0 : -1;
+    }
+
+    /**
+     * Gets the end of the level in a lore string, ignoring trailing spaces
+     *
+     * @param lore the lore string to scan
+     * @return     index right after the last character of the level
+     */
+    static int levelEnd(String lore) {
+        int end = lore.length();
+        while (end > 0 && lore.charAt(end - 1) == ' ') end--;
+        return end;
+    }
 
-        String[] pieces = lore.split(" ");
-        return ERomanNumeral.getValueOf(pieces[pieces.length - 1]);
+    /**
+     * Parses the enchantment name in front of the given level position,
+     * skipping any color codes in it
+     *
+     * @param lore       the lore string to parse
+     * @param levelStart index of the level as given by {@link #levelStart(String)}
+     * @return           enchantment name without colors or null if there is none
+     */
+    public static String parseName(String lore, int levelStart) {
+        if (levelStart < 0) return null;
+        if (levelStart == 0) return "";
+
+        int end = levelStart - 1;
+        StringBuilder builder = null;
+        int copied = 0;
+        for (int i = 0; i < end - 1; i++) {
+            if (lore.charAt(i) == ChatColor.COLOR_CHAR && isColorCode(lore.charAt(i + 1))) {
+                if (builder == null) builder = new StringBuilder(end);
+                builder.append(lore, copied, i);
+                copied = ++i + 1;
+            }
+        }
+        if (builder == null) return lore.substring(0, end);
+        return builder.append(lore, copied, end).toString();
+    }
+
+    /**
+     * Parses the enchantment level starting at the given position
+     *
+     * @param lore       the lore string to parse
+     * @param levelStart index of the level as given by {@link #levelStart(String)}
+     * @return           enchantment level, 0 if there is none or the numeral is malformed
+     */
+    public static int parseLevel(String lore, int levelStart) {
+        if (levelStart < 0) return 0;
+        return ERomanNumeral.getStrictValueOf(lore, levelStart, levelEnd(lore));
+    }
+
+    /**
+     * Checks if the character is a valid code after the color character
+     *
+     * @param code character following the color character
+     * @return     true if the pair would be removed by ChatColor.stripColor
+     */
+    static boolean isColorCode(char code) {
+        return code >= '0' && code <= '9'
+                || code >= 'a' && code <= 'f' || code >= 'A' && code <= 'F'
+                || code >= 'k' && code <= 'o' || code >= 'K' && code <= 'O'
+                || code == 'r' || code == 'R';
     }
 
     /**
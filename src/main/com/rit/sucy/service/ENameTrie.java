@@ -0,0 +1,128 @@
+package com.rit.sucy.service;
+
+import com.rit.sucy.CustomEnchantment;
+import org.bukkit.ChatColor;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Case insensitive character trie over the names of enchantments.
+ * Resolves the name part of a lore line to its enchantment in one
+ * left to right scan, giving up as soon as no name starts that way.
+ */
+public class ENameTrie {
+
+    /**
+     * Start of every name
+     */
+    private final Node root;
+
+    /**
+     * Builds a trie containing the names of the given enchantments
+     *
+     * @param enchantments enchantments to include
+     */
+    public ENameTrie(Collection<CustomEnchantment> enchantments) {
+        Builder builder = new Builder();
+        for (CustomEnchantment enchantment : enchantments) {
+            Builder node = builder;
+            String name = enchantment.name();
+            for (int i = 0; i < name.length(); i++) {
+                node = node.child(Character.toUpperCase(name.charAt(i)));
+            }
+            node.value = enchantment;
+        }
+        root = builder.build();
+    }
+
+    /**
+     * Finds the enchantment whose name makes up the start of the lore line.
+     * Color codes are skipped the same way ChatColor.stripColor removes them.
+     *
+     * @param lore    lore line to check
+     * @param nameEnd index right after the last character of the name
+     * @return        the enchantment or null if no name matches exactly
+     */
+    public CustomEnchantment match(String lore, int nameEnd) {
+        Node node = root;
+        for (int i = 0; i < nameEnd; i++) {
+            char c = lore.charAt(i);
+            if (c == ChatColor.COLOR_CHAR && i < nameEnd - 1 && ENameParser.isColorCode(lore.charAt(i + 1))) {
+                i++;
+                continue;
+            }
+            node = node.child(Character.toUpperCase(c));
+            if (node == null) return null;
+        }
+        return node.value;
+    }
+
+    /**
+     * Frozen node of the trie
+     */
+    private static class Node {
+
+        /**
+         * Sorted characters leading to the children
+         */
+        final char[] keys;
+
+        /**
+         * Children in the same order as the keys
+         */
+        final Node[] children;
+
+        /**
+         * Enchantment whose name ends here, if any
+         */
+        final CustomEnchantment value;
+
+        Node(char[] keys, Node[] children, CustomEnchantment value) {
+            this.keys = keys;
+            this.children = children;
+            this.value = value;
+        }
+
+        /**
+         * @param c next character
+         * @return  the child for the character or null if there is none
+         */
+        Node child(char c) {
+            int index = Arrays.binarySearch(keys, c);
+            return index < 0 ? null : children[index];
+        }
+    }
+
+    /**
+     * Mutable node used while building
+     */
+    private static class Builder {
+
+        final TreeMap<Character, Builder> children = new TreeMap<Character, Builder>();
+
+        CustomEnchantment value;
+
+        Builder child(char c) {
+            Builder child = children.get(c);
+            if (child == null) {
+                child = new Builder();
+                children.put(c, child);
+            }
+            return child;
+        }
+
+        Node build() {
+            char[] keys = new char[children.size()];
+            Node[] nodes = new Node[children.size()];
+            int i = 0;
+            for (Map.Entry<Character, Builder> entry : children.entrySet()) {
+                keys[i] = entry.getKey();
+                nodes[i++] = entry.getValue().build();
+            }
+            return new Node(keys, nodes, value);
+        }
+    }
+}
@@ -35,6 +35,36 @@ public class ERomanNumeral {
         }
     }
 
+    /**
+     * Roman numbers from the biggest to the smallest
+     */
+    private static final RomanNumber[] ROMAN_NUMBERS = RomanNumber.values();
+
+    /**
+     * Highest value that has its numeral precomputed
+     */
+    static final int CACHED_NUMERALS = 100;
+
+    /**
+     * Precomputed numerals, the index is the value
+     */
+    private static final String[] NUMERALS = new String[CACHED_NUMERALS + 1];
+
+    /**
+     * Value of every ASCII character as a numeral, 0 if it isn't one
+     */
+    private static final int[] CHAR_VALUES = new int[128];
+
+    static {
+        for (RomanNumber romanNumber : ROMAN_NUMBERS) {
+            CHAR_VALUES[romanNumber.name().charAt(0)] = romanNumber.getInDecimal();
+            CHAR_VALUES[Character.toLowerCase(romanNumber.name().charAt(0))] = romanNumber.getInDecimal();
+        }
+        for (int i = 1; i <= CACHED_NUMERALS; i++) {
+            NUMERALS[i] = buildNumeral(i);
+        }
+    }
+
     /**
      * Gets the Roman Numeral string representing the given value
      *
@@ -43,12 +73,21 @@ public class ERomanNumeral {
      */
     public static String numeralOf(int value) {
         Validate.isTrue(value > 0, "Roman numbers can't express zero or negative numbers!");
+        if (value <= CACHED_NUMERALS) return NUMERALS[value];
+        return buildNumeral(value);
+    }
 
+    /**
+     * Builds the Roman Numeral string representing the given value
+     *
+     * @param value value to be converted
+     * @return      Roman Numeral String
+     */
+    private static String buildNumeral(int value) {
         StringBuilder builder = new StringBuilder();
-        RomanNumber[] romanNumbers = RomanNumber.values();
 
-        for (int i = 0; i < romanNumbers.length; i++){
-            RomanNumber romanNumber = romanNumbers[i];
+        for (int i = 0; i < ROMAN_NUMBERS.length; i++){
+            RomanNumber romanNumber = ROMAN_NUMBERS[i];
 
             // Regular values
             while (value >= romanNumber.getInDecimal()) {
@@ -57,9 +96,9 @@ public class ERomanNumeral {
             }
 
             // Subtraction values
-            if (i < romanNumbers.length - 1) {
+            if (i < ROMAN_NUMBERS.length - 1) {
                 int index = i - i % 2 + 2;
-                RomanNumber subtractNum = romanNumbers[index];
+                RomanNumber subtractNum = ROMAN_NUMBERS[index];
 
                 if (value >= romanNumber.getInDecimal() - subtractNum.getInDecimal()) {
                     value -= romanNumber.getInDecimal() - subtractNum.getInDecimal();
@@ -78,13 +117,24 @@ public class ERomanNumeral {
      * @return             integer value (0 if invalid string)
      */
     public static int getValueOf(String romanNumeral) {
-        char[] numerals = romanNumeral.toCharArray();
+        return getValueOf(romanNumeral, 0, romanNumeral.length());
+    }
+
+    /**
+     * Parses part of a string as Roman Numeral into an integer
+     *
+     * @param text  text containing the Roman Numeral
+     * @param start index of the first numeral
+     * @param end   index after the last numeral
+     * @return      integer value (0 if invalid string)
+     */
+    public static int getValueOf(CharSequence text, int start, int end) {
         int total = 0;
 
-        for (int i = 0; i < numerals.length; i++) {
-            int value = getNumeralValue(numerals[i]);
-            if (i < numerals.length - 1) {
-                if (getNumeralValue(numerals[i + 1]) > value) value = -value;
+        for (int i = start; i < end; i++) {
+            int value = getNumeralValue(text.charAt(i));
+            if (i < end - 1) {
+                if (getNumeralValue(text.charAt(i + 1)) > value) value = -value;
             }
             if (value == 0) return 0;
             total += value;
@@ -92,6 +142,30 @@ public class ERomanNumeral {
         return total;
     }
 
+    /**
+     * Parses part of a string as Roman Numeral, only accepting numerals
+     * in the form numeralOf would produce them (case is ignored).
+     * Things like "IIII", "IC" or "X-ray" are rejected.
+     *
+     * @param text  text containing the Roman Numeral
+     * @param start index of the first numeral
+     * @param end   index after the last numeral
+     * @return      integer value (0 if invalid or malformed)
+     */
+    public static int getStrictValueOf(CharSequence text, int start, int end) {
+        if (start >= end || getNumeralValue(text.charAt(start)) == 0) return 0;
+
+        int value = getValueOf(text, start, end);
+        if (value <= 0) return 0;
+
+        String numeral = numeralOf(value);
+        if (numeral.length() != end - start) return 0;
+        for (int i = 0; i < numeral.length(); i++) {
+            if (Character.toUpperCase(text.charAt(start + i)) != numeral.charAt(i)) return 0;
+        }
+        return value;
+    }
+
     /**
      * Gets the value of the given Roman Numeral character
      *
@@ -99,13 +173,6 @@ public class ERomanNumeral {
      * @return        value of the character
      */
     public static int getNumeralValue(char numeral) {
-        String romanNumeral = ("" + numeral).toUpperCase();
-        try {
-            RomanNumber romanNumber = RomanNumber.valueOf(romanNumeral);
-            return romanNumber.getInDecimal();
-        }
-        catch (IllegalArgumentException e) {
-            return 0;
-        }
+        return numeral < CHAR_VALUES.length ? CHAR_VALUES[numeral] : 0;
     }
 }
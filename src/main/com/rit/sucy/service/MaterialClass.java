@@ -2,6 +2,8 @@ package com.rit.sucy.service;
 
 import org.bukkit.Material;
 
+import java.util.EnumMap;
+
 /**
  * Determine to which type of Material this item belongs stone/iron/diamond/chain...
  * and hold default values about enchantability
@@ -44,6 +46,28 @@ public enum MaterialClass
 
     private final int enchantability;
 
+    /**
+     * Class of every material, looked up once
+     */
+    private static final EnumMap<Material, MaterialClass> byMaterial = new EnumMap<Material, MaterialClass>(Material.class);
+
+    static
+    {
+        for (Material material : Material.values())
+        {
+            MaterialClass found = DEFAULT;
+            for (MaterialClass materialClass : values())
+            {
+                if (material.name().contains(materialClass.name() + "_"))
+                {
+                    found = materialClass;
+                    break;
+                }
+            }
+            byMaterial.put(material, found);
+        }
+    }
+
     /**
      * Constructor
      *
@@ -72,16 +96,18 @@ public enum MaterialClass
      */
     public static int getEnchantabilityFor (Material material)
     {
-        int enchantability = MaterialClass.DEFAULT.getEnchantability();
+        return getFor(material).getEnchantability();
+    }
 
-        for (MaterialClass materialClass : MaterialClass.values())
-        {
-            if (material.name().contains (materialClass.name() + "_"))
-            {
-                enchantability = materialClass.getEnchantability();
-                break;
-            }
-        }
-        return enchantability;
+    /**
+     * Get the MaterialClass a certain item type belongs to
+     *
+     * @param material  for which to get the MaterialClass
+     * @return          the MaterialClass of the Material or DEFAULT if it has none
+     */
+    public static MaterialClass getFor (Material material)
+    {
+        MaterialClass materialClass = byMaterial.get(material);
+        return materialClass == null ? DEFAULT : materialClass;
     }
 }
@@ -0,0 +1,47 @@
+package com.rit.sucy;
+
+import org.bukkit.Material;
+
+/**
+ * Enchantment without any effects shared by the tests
+ */
+public class DummyEnchantment extends CustomEnchantment
+{
+    /**
+     * Creates an enchantment that can't naturally go onto any item
+     *
+     * @param name name of the enchantment
+     */
+    public DummyEnchantment(String name)
+    {
+        super(name, new Material[0]);
+    }
+
+    /**
+     * Creates an enchantment that can naturally go onto the materials
+     *
+     * @param name      name of the enchantment
+     * @param materials natural materials
+     * @return          the enchantment
+     */
+    public static DummyEnchantment onto(String name, Material... materials)
+    {
+        DummyEnchantment enchantment = new DummyEnchantment(name);
+        enchantment.setNaturalMaterials(materials);
+        return enchantment;
+    }
+
+    /**
+     * Creates an enchantment conflicting with the named ones
+     *
+     * @param name      name of the enchantment
+     * @param conflicts names of the conflicting enchantments
+     * @return          the enchantment
+     */
+    public static DummyEnchantment conflicting(String name, String... conflicts)
+    {
+        DummyEnchantment enchantment = new DummyEnchantment(name);
+        enchantment.setConflictingEnchants(conflicts);
+        return enchantment;
+    }
+}
@@ -58,4 +58,41 @@ public class ERomanNumeralTest {
         assertEquals("IV", ERomanNumeral.numeralOf(4));
         assertEquals("VI", ERomanNumeral.numeralOf(6));
     }
+
+    /**
+     * Precomputed and built numerals have to be the same
+     */
+    @Test
+    public void cached_numeralOfTest()
+    {
+        assertEquals("C", ERomanNumeral.numeralOf(100));
+        assertEquals("CI", ERomanNumeral.numeralOf(101));
+        assertEquals("MMXIII", ERomanNumeral.numeralOf(2013));
+    }
+
+    /**
+     * Strict parsing only accepts numerals the way numeralOf writes them
+     */
+    @Test
+    public void strict_getValueOfTest()
+    {
+        for (int i = 1; i <= 300; i++)
+        {
+            String numeral = ERomanNumeral.numeralOf(i);
+            assertEquals(i, ERomanNumeral.getStrictValueOf(numeral, 0, numeral.length()));
+            assertEquals(i, ERomanNumeral.getStrictValueOf(numeral.toLowerCase(), 0, numeral.length()));
+        }
+        assertEquals(4, ERomanNumeral.getStrictValueOf("Sword IV", 6, 8));
+    }
+
+    /**
+     * Malformed numerals and other words are rejected by strict parsing
+     */
+    @Test
+    public void invalid_strict_getValueOfTest()
+    {
+        String[] invalid = {"IIII", "IC", "VV", "IIV", "X-ray", "Sword", "", "\u00A7cIV", "\u2160"};
+        for (String numeral : invalid)
+            assertEquals(numeral, 0, ERomanNumeral.getStrictValueOf(numeral, 0, numeral.length()));
+    }
 }
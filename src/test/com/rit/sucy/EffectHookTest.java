@@ -0,0 +1,72 @@
+package com.rit.sucy;
+
+import org.bukkit.entity.LivingEntity;
+import org.bukkit.entity.Player;
+import org.bukkit.event.entity.EntityDamageEvent;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for EffectHook
+ */
+public class EffectHookTest
+{
+    /**
+     * Only overridden effect methods count as used hooks
+     */
+    @Test
+    public void overrides()
+    {
+        CustomEnchantment plain = new DummyEnchantment("Plain");
+        assertEquals(0, plain.getHookMask());
+
+        CustomEnchantment defensive = new DefensiveEnchantment();
+        assertTrue(defensive.usesHook(EffectHook.DEFENSE));
+        assertTrue(defensive.usesHook(EffectHook.EQUIP));
+        assertFalse(defensive.usesHook(EffectHook.OFFENSE));
+        assertEquals(EffectHook.DEFENSE.getBit() | EffectHook.EQUIP.getBit(), defensive.getHookMask());
+    }
+
+    /**
+     * Overrides of a parent class count for its subclasses too
+     */
+    @Test
+    public void inherited()
+    {
+        assertTrue(new DefensiveEnchantment() { }.usesHook(EffectHook.DEFENSE));
+    }
+
+    /**
+     * Passive enchantments use the passive hook and keep their period
+     */
+    @Test
+    public void passive()
+    {
+        CustomEnchantment passive = new DummyEnchantment("Plain")
+        {
+            @Override
+            public void applyPassiveEffect(Player player, int enchantLevel) { }
+        };
+        assertEquals(EffectHook.PASSIVE.getBit(), passive.getHookMask());
+        assertEquals(20, passive.getPassivePeriod());
+        passive.setPassivePeriod(5);
+        assertEquals(5, passive.getPassivePeriod());
+    }
+
+    private static class DefensiveEnchantment extends DummyEnchantment
+    {
+        DefensiveEnchantment()
+        {
+            super("Defensive");
+        }
+
+        @Override
+        public void applyDefenseEffect(LivingEntity user, LivingEntity target, int enchantLevel, EntityDamageEvent event) { }
+
+        @Override
+        public void applyEquipEffect(Player player, int enchantLevel) { }
+    }
+}
@@ -0,0 +1,61 @@
+package com.rit.sucy;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for EnchantmentSet
+ */
+public class EnchantmentSetTest
+{
+    /**
+     * Built sets are sorted by id and keep the last level put in
+     */
+    @Test
+    public void build()
+    {
+        EnchantmentSet set = new EnchantmentSet.Builder().put(7, 1).put(2, 3).put(7, 2).build();
+        assertEquals(2, set.size());
+        assertEquals(2, set.getId(0));
+        assertEquals(3, set.getLevel(0));
+        assertEquals(7, set.getId(1));
+        assertEquals(2, set.getLevel(1));
+        assertTrue(set.contains(7));
+        assertFalse(set.contains(5));
+        assertEquals(0, set.levelOf(5));
+        assertSame(EnchantmentSet.EMPTY, new EnchantmentSet.Builder().build());
+    }
+
+    /**
+     * Unions contain both sets and keep the higher level
+     */
+    @Test
+    public void union()
+    {
+        EnchantmentSet a = new EnchantmentSet.Builder().put(1, 1).put(4, 3).build();
+        EnchantmentSet b = new EnchantmentSet.Builder().put(4, 2).put(9, 1).build();
+        EnchantmentSet expected = new EnchantmentSet.Builder().put(1, 1).put(4, 3).put(9, 1).build();
+        assertEquals(expected, a.union(b));
+        assertEquals(expected, b.union(a));
+        assertSame(a, a.union(EnchantmentSet.EMPTY));
+        assertSame(b, EnchantmentSet.EMPTY.union(b));
+    }
+
+    /**
+     * Differences keep entries missing from or leveled differently in the other set
+     */
+    @Test
+    public void difference()
+    {
+        EnchantmentSet a = new EnchantmentSet.Builder().put(1, 1).put(4, 3).put(9, 1).build();
+        EnchantmentSet b = new EnchantmentSet.Builder().put(1, 1).put(4, 2).build();
+        assertEquals(new EnchantmentSet.Builder().put(4, 3).put(9, 1).build(), a.difference(b));
+        assertEquals(new EnchantmentSet.Builder().put(4, 2).build(), b.difference(a));
+        assertSame(EnchantmentSet.EMPTY, a.difference(a));
+        assertSame(a, a.difference(EnchantmentSet.EMPTY));
+    }
+}
@@ -0,0 +1,47 @@
+package com.rit.sucy;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for EquipmentSlot and the slots of enchantments
+ */
+public class EquipmentSlotTest
+{
+    /**
+     * Enchantments are active in every slot unless told otherwise
+     */
+    @Test
+    public void defaultsToAllSlots()
+    {
+        CustomEnchantment enchantment = new DummyEnchantment("Test");
+        assertEquals(EquipmentSlot.ALL, enchantment.getSlotMask());
+        for (EquipmentSlot slot : EquipmentSlot.values())
+            assertTrue(enchantment.isActiveIn(slot));
+    }
+
+    /**
+     * Setting slots restricts the enchantment to exactly those slots
+     */
+    @Test
+    public void restrictedSlots()
+    {
+        CustomEnchantment enchantment = new DummyEnchantment("Test");
+        enchantment.setSlots(EquipmentSlot.HELMET, EquipmentSlot.BOOTS);
+        assertEquals(EquipmentSlot.HELMET.getBit() | EquipmentSlot.BOOTS.getBit(), enchantment.getSlotMask());
+        assertTrue(enchantment.isActiveIn(EquipmentSlot.BOOTS));
+        assertFalse(enchantment.isActiveIn(EquipmentSlot.HAND));
+    }
+
+    /**
+     * An enchantment has to be active somewhere
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void noSlots()
+    {
+        new DummyEnchantment("Test").setSlots();
+    }
+}
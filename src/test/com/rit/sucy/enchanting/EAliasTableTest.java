@@ -0,0 +1,60 @@
+package com.rit.sucy.enchanting;
+
+import com.rit.sucy.CustomEnchantment;
+import com.rit.sucy.DummyEnchantment;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for EAliasTable
+ */
+public class EAliasTableTest
+{
+    private final CustomEnchantment[] enchantments = {
+            new DummyEnchantment("A"), new DummyEnchantment("B"), new DummyEnchantment("C"), new DummyEnchantment("D")
+    };
+
+    /**
+     * Draws follow the weights
+     */
+    @Test
+    public void distribution()
+    {
+        int[] weights = { 1, 5, 0, 10 };
+        EAliasTable table = new EAliasTable(enchantments, weights);
+        Random random = new Random(42);
+        int draws = 160000;
+        int[] counts = new int[enchantments.length];
+        for (int i = 0; i < draws; i++)
+        {
+            CustomEnchantment drawn = table.draw(random);
+            for (int j = 0; j < enchantments.length; j++)
+            {
+                if (drawn == enchantments[j]) counts[j]++;
+            }
+        }
+        assertEquals(0, counts[2]);
+        for (int j = 0; j < enchantments.length; j++)
+        {
+            double expected = (double) draws * weights[j] / 16;
+            assertTrue("Enchantment " + j + " drawn " + counts[j] + " times", Math.abs(counts[j] - expected) < draws * 0.01);
+        }
+    }
+
+    /**
+     * Tables without any weight can't be drawn from
+     */
+    @Test
+    public void empty()
+    {
+        assertTrue(new EAliasTable(new CustomEnchantment[0], new int[0]).isEmpty());
+        EAliasTable zero = new EAliasTable(enchantments, new int[] { 0, 0, 0, 0 });
+        assertTrue(zero.isEmpty());
+        assertNull(zero.draw(new Random()));
+    }
+}
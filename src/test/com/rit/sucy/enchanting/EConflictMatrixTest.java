@@ -0,0 +1,52 @@
+package com.rit.sucy.enchanting;
+
+import com.rit.sucy.CustomEnchantment;
+import com.rit.sucy.DummyEnchantment;
+import com.rit.sucy.EnchantmentAPI;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for EConflictMatrix
+ */
+public class EConflictMatrixTest
+{
+    /**
+     * Conflicts are symmetric, include the enchantment itself and match conflictsWith
+     */
+    @Test
+    public void conflicts()
+    {
+        CustomEnchantment fire = DummyEnchantment.conflicting("Matrix Fire", "Matrix Ice");
+        CustomEnchantment ice = new DummyEnchantment("Matrix Ice");
+        CustomEnchantment wind = new DummyEnchantment("Matrix Wind");
+        EnchantmentAPI.registerCustomEnchantment(fire);
+        EnchantmentAPI.registerCustomEnchantment(ice);
+        EnchantmentAPI.registerCustomEnchantment(wind);
+        try
+        {
+            EConflictMatrix matrix = new EConflictMatrix(Arrays.asList(fire, ice, wind), EnchantmentAPI.getIdCount());
+            assertTrue(matrix.conflicts(fire.getId(), ice.getId()));
+            assertTrue(matrix.conflicts(ice.getId(), fire.getId()));
+            assertTrue(matrix.conflicts(wind.getId(), wind.getId()));
+            assertFalse(matrix.conflicts(fire.getId(), wind.getId()));
+
+            long[] chosen = matrix.newMask();
+            assertFalse(matrix.conflicts(ice.getId(), chosen));
+            matrix.add(chosen, fire.getId());
+            assertTrue(matrix.conflicts(ice.getId(), chosen));
+            assertTrue(matrix.conflicts(fire.getId(), chosen));
+            assertFalse(matrix.conflicts(wind.getId(), chosen));
+        }
+        finally
+        {
+            EnchantmentAPI.unregisterCustomEnchantment(fire.name());
+            EnchantmentAPI.unregisterCustomEnchantment(ice.name());
+            EnchantmentAPI.unregisterCustomEnchantment(wind.name());
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.rit.sucy.enchanting;
+
+import com.rit.sucy.EnchantmentSet;
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemStack;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+/**
+ * Tests for the equipment checks of EEquip
+ */
+public class EEquipTest
+{
+    /**
+     * Empty slots and items without lore have no enchantments
+     */
+    @Test
+    public void emptySlots()
+    {
+        ItemStack[] armor = { null, new ItemStack(Material.AIR), new ItemStack(Material.DIAMOND_CHESTPLATE), null };
+        assertEquals(EnchantmentSet.EMPTY, EEquip.enchantmentsOf(armor));
+    }
+
+    /**
+     * Enchantment sets with the same hash still count as a change, with
+     * exactly the differing entries unequipped and equipped
+     */
+    @Test
+    public void hashCollision()
+    {
+        EnchantmentSet previous = new EnchantmentSet.Builder().put(3, 2).put(5, 1).build();
+        EnchantmentSet current = new EnchantmentSet.Builder().put(3, 1).put(6, 1).build();
+        assertEquals(previous.hashCode(), current.hashCode());
+
+        assertFalse(previous.equals(current));
+        assertEquals(previous, previous.difference(current));
+        assertEquals(current, current.difference(previous));
+    }
+}
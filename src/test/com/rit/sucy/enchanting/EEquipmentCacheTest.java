@@ -0,0 +1,65 @@
+package com.rit.sucy.enchanting;
+
+import com.rit.sucy.CustomEnchantment;
+import com.rit.sucy.DummyEnchantment;
+import com.rit.sucy.EffectHook;
+import com.rit.sucy.EnchantmentAPI;
+import com.rit.sucy.EnchantmentSet;
+import com.rit.sucy.EquipmentSlot;
+import org.bukkit.entity.Player;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Tests for the slot filtering of EEquipmentCache
+ */
+public class EEquipmentCacheTest
+{
+    /**
+     * Only enchantments active in the slot and using one of the hooks count for it
+     */
+    @Test
+    public void activeIn()
+    {
+        CustomEnchantment helmetOnly = new EquipEnchantment("Equip Helmet Only");
+        helmetOnly.setSlots(EquipmentSlot.HELMET);
+        CustomEnchantment anywhere = new EquipEnchantment("Equip Anywhere");
+        CustomEnchantment noHooks = new DummyEnchantment("Equip No Hooks");
+        EnchantmentAPI.registerCustomEnchantment(helmetOnly);
+        EnchantmentAPI.registerCustomEnchantment(anywhere);
+        EnchantmentAPI.registerCustomEnchantment(noHooks);
+        try
+        {
+            int equip = EffectHook.EQUIP.getBit();
+            EnchantmentSet both = new EnchantmentSet.Builder().put(helmetOnly, 2).put(anywhere, 1).build();
+            assertSame(both, EEquipmentCache.activeIn(both, EquipmentSlot.HELMET, equip));
+            assertEquals(new EnchantmentSet.Builder().put(anywhere, 1).build(), EEquipmentCache.activeIn(both, EquipmentSlot.BOOTS, equip));
+            assertEquals(EnchantmentSet.EMPTY, EEquipmentCache.activeIn(both, EquipmentSlot.HELMET, EffectHook.UNEQUIP.getBit()));
+
+            EnchantmentSet mixed = new EnchantmentSet.Builder().put(noHooks, 1).put(anywhere, 3).build();
+            assertEquals(new EnchantmentSet.Builder().put(anywhere, 3).build(), EEquipmentCache.activeIn(mixed, EquipmentSlot.HAND, equip));
+        }
+        finally
+        {
+            EnchantmentAPI.unregisterCustomEnchantment(helmetOnly.name());
+            EnchantmentAPI.unregisterCustomEnchantment(anywhere.name());
+            EnchantmentAPI.unregisterCustomEnchantment(noHooks.name());
+        }
+    }
+
+    /**
+     * Enchantment using only the equip hook
+     */
+    private static class EquipEnchantment extends DummyEnchantment
+    {
+        EquipEnchantment(String name)
+        {
+            super(name);
+        }
+
+        @Override
+        public void applyEquipEffect(Player player, int enchantLevel) {}
+    }
+}
@@ -0,0 +1,154 @@
+package com.rit.sucy.enchanting;
+
+import com.rit.sucy.CustomEnchantment;
+import com.rit.sucy.DummyEnchantment;
+import com.rit.sucy.EnchantmentAPI;
+import com.rit.sucy.service.MaterialClass;
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemStack;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for ETableIndex
+ */
+public class ETableIndexTest
+{
+    private final CustomEnchantment lifeSteal = DummyEnchantment.onto("Life Steal", Material.IRON_SWORD, Material.DIAMOND_SWORD);
+    private final CustomEnchantment lightning = DummyEnchantment.onto("Lightning", Material.DIAMOND_SWORD);
+    private final CustomEnchantment disabled = DummyEnchantment.onto("Disabled", Material.IRON_AXE);
+
+    /**
+     * Materials map to the enabled enchantments listing them
+     */
+    @Test
+    public void byMaterial()
+    {
+        ETableIndex index = build();
+        assertArrayEquals(new CustomEnchantment[] { lifeSteal }, index.getEnchantments(Material.IRON_SWORD));
+        assertArrayEquals(new CustomEnchantment[] { lifeSteal, lightning }, index.getEnchantments(Material.DIAMOND_SWORD));
+        assertTrue(index.hasAny(Material.DIAMOND_SWORD));
+        assertFalse(index.hasAny(Material.IRON_AXE));
+        assertFalse(index.hasAny(Material.BOW));
+    }
+
+    /**
+     * Books can get every enabled enchantment
+     */
+    @Test
+    public void books()
+    {
+        assertEquals(2, build().getEnchantments(Material.BOOK).length);
+    }
+
+    /**
+     * Weights depend on the MaterialClass of the item and are
+     * copied into the index when it is built
+     */
+    @Test
+    public void weights()
+    {
+        lifeSteal.setWeight(MaterialClass.IRON, 7);
+        register();
+        try
+        {
+            ETableIndex index = build();
+            assertEquals(MaterialClass.IRON, MaterialClass.getFor(Material.IRON_SWORD));
+            assertEquals(MaterialClass.DEFAULT, MaterialClass.getFor(Material.BOOK));
+            assertEquals(7, index.getWeight(lifeSteal, MaterialClass.IRON));
+            assertEquals(5, index.getWeight(lifeSteal, MaterialClass.DIAMOND));
+
+            // Later changes only show up in the next index
+            lifeSteal.setWeight(MaterialClass.IRON, 9);
+            assertEquals(7, index.getWeight(lifeSteal, MaterialClass.IRON));
+            assertEquals(9, build().getWeight(lifeSteal, MaterialClass.IRON));
+        }
+        finally
+        {
+            unregister();
+        }
+    }
+
+    /**
+     * Each material draws with the weights of its own MaterialClass
+     */
+    @Test
+    public void tablesPerClass()
+    {
+        lifeSteal.setWeight(MaterialClass.DIAMOND, 0);
+        lightning.setWeight(MaterialClass.DEFAULT, 0);
+        lightning.setWeight(MaterialClass.DIAMOND, 3);
+        register();
+        try
+        {
+            ETableIndex index = build();
+            Random random = new Random(7);
+            for (int i = 0; i < 100; i++)
+            {
+                assertSame(lightning, index.getTable(Material.DIAMOND_SWORD).draw(random));
+                assertSame(lifeSteal, index.getTable(Material.IRON_SWORD).draw(random));
+                assertSame(lifeSteal, index.getTable(Material.BOOK).draw(random));
+            }
+            assertTrue(index.getTable(Material.IRON_AXE).isEmpty());
+        }
+        finally
+        {
+            unregister();
+        }
+    }
+
+    /**
+     * Enchantments overriding canEnchantOnto are asked about each item
+     */
+    @Test
+    public void canEnchantOntoOverride()
+    {
+        CustomEnchantment sticky = new DummyEnchantment("Sticky")
+        {
+            @Override
+            public boolean canEnchantOnto(ItemStack item)
+            {
+                return item.getType() == Material.STICK;
+            }
+        };
+        assertTrue(ETableIndex.overridesCanEnchantOnto(sticky));
+        assertFalse(ETableIndex.overridesCanEnchantOnto(lifeSteal));
+
+        ETableIndex index = new ETableIndex(0, Arrays.asList(lifeSteal, sticky), 0);
+        assertArrayEquals(new CustomEnchantment[] { lifeSteal }, index.getEnchantments(new ItemStack(Material.DIAMOND_SWORD)));
+        assertArrayEquals(new CustomEnchantment[] { sticky }, index.getEnchantments(new ItemStack(Material.STICK)));
+        assertFalse(index.hasAny(Material.STICK));
+        assertTrue(index.hasAny(new ItemStack(Material.STICK)));
+        assertTrue(index.getTable(new ItemStack(Material.STICK)).draw(new Random(1)) == sticky);
+        assertTrue(index.getTable(new ItemStack(Material.BOW)).isEmpty());
+    }
+
+    private ETableIndex build()
+    {
+        disabled.setEnabled(false);
+        return new ETableIndex(0, Arrays.asList(lifeSteal, lightning, disabled), EnchantmentAPI.getIdCount());
+    }
+
+    private void register()
+    {
+        EnchantmentAPI.registerCustomEnchantment(lifeSteal);
+        EnchantmentAPI.registerCustomEnchantment(lightning);
+        EnchantmentAPI.registerCustomEnchantment(disabled);
+        assertTrue(lifeSteal.getId() >= 0 && lightning.getId() >= 0);
+    }
+
+    private void unregister()
+    {
+        EnchantmentAPI.unregisterCustomEnchantment(lifeSteal.name());
+        EnchantmentAPI.unregisterCustomEnchantment(lightning.name());
+        EnchantmentAPI.unregisterCustomEnchantment(disabled.name());
+    }
+}
@@ -0,0 +1,81 @@
+package com.rit.sucy.enchanting;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for ETimingWheel
+ */
+public class ETimingWheelTest
+{
+    /**
+     * Items come up exactly their delay after scheduling, below, at and above the wheel size
+     */
+    @Test
+    public void delays()
+    {
+        int[] delays = { 1, 2, ETimingWheel.SIZE - 1, ETimingWheel.SIZE, ETimingWheel.SIZE + 1, ETimingWheel.SIZE * 3 + 5 };
+        ETimingWheel<Integer> wheel = new ETimingWheel<Integer>();
+        for (int delay : delays)
+            wheel.schedule(delay, delay);
+
+        List<Integer> fired = new ArrayList<Integer>();
+        for (int tick = 1; tick <= ETimingWheel.SIZE * 4; tick++)
+        {
+            for (int item : wheel.advance())
+            {
+                assertEquals(tick, item);
+                fired.add(item);
+            }
+        }
+        assertEquals(delays.length, fired.size());
+    }
+
+    /**
+     * Scheduling mid-turn counts from the current tick
+     */
+    @Test
+    public void midTurn()
+    {
+        ETimingWheel<String> wheel = new ETimingWheel<String>();
+        for (int i = 0; i < 10; i++)
+            assertTrue(wheel.advance().isEmpty());
+        wheel.schedule("late", ETimingWheel.SIZE * 2);
+        for (int i = 1; i < ETimingWheel.SIZE * 2; i++)
+            assertTrue(wheel.advance().isEmpty());
+        assertEquals(Arrays.asList("late"), wheel.advance());
+        assertEquals(10 + ETimingWheel.SIZE * 2, wheel.getTick());
+    }
+
+    /**
+     * Items re-armed while handling them come up again every period
+     */
+    @Test
+    public void rearm()
+    {
+        int[] periods = { 1, 20, ETimingWheel.SIZE, 100 };
+        for (int period : periods)
+        {
+            ETimingWheel<String> wheel = new ETimingWheel<String>();
+            wheel.schedule("passive", period);
+            List<Long> ticks = new ArrayList<Long>();
+            while (wheel.getTick() < period * 5)
+            {
+                for (String item : wheel.advance())
+                {
+                    ticks.add(wheel.getTick());
+                    wheel.schedule(item, period);
+                }
+            }
+            assertEquals(5, ticks.size());
+            for (int i = 0; i < ticks.size(); i++)
+                assertEquals((long) period * (i + 1), (long) ticks.get(i));
+        }
+    }
+}
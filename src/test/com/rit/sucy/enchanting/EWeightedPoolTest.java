@@ -0,0 +1,96 @@
+package com.rit.sucy.enchanting;
+
+import com.rit.sucy.CustomEnchantment;
+import com.rit.sucy.DummyEnchantment;
+import com.rit.sucy.EnchantmentAPI;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for EWeightedPool
+ */
+public class EWeightedPoolTest
+{
+    /**
+     * Drawing from the pool after taking out conflicts gives the same odds
+     * as redrawing from all candidates until there is no conflict
+     */
+    @Test
+    public void matchesRejectionSampling()
+    {
+        CustomEnchantment sharp = DummyEnchantment.conflicting("Pool Sharp", "Pool Smite");
+        CustomEnchantment smite = new DummyEnchantment("Pool Smite");
+        CustomEnchantment fire = new DummyEnchantment("Pool Fire");
+        CustomEnchantment knock = new DummyEnchantment("Pool Knock");
+        CustomEnchantment[] enchantments = { sharp, smite, fire, knock };
+        int[] weights = { 10, 5, 2, 5 };
+        for (CustomEnchantment enchantment : enchantments) EnchantmentAPI.registerCustomEnchantment(enchantment);
+        try
+        {
+            EConflictMatrix conflicts = new EConflictMatrix(Arrays.asList(enchantments), EnchantmentAPI.getIdCount());
+            EAliasTable table = new EAliasTable(enchantments, weights);
+            long[] chosen = conflicts.newMask();
+            conflicts.add(chosen, sharp.getId());
+
+            Random random = new Random(7);
+            int draws = 100000;
+            int[] pooled = new int[enchantments.length];
+            int[] rejected = new int[enchantments.length];
+            for (int i = 0; i < draws; i++)
+            {
+                EWeightedPool pool = table.newPool();
+                pool.removeConflicts(conflicts, sharp);
+                pooled[indexOf(enchantments, pool.draw(random))]++;
+
+                CustomEnchantment drawn;
+                do drawn = table.draw(random);
+                while (conflicts.conflicts(drawn.getId(), chosen));
+                rejected[indexOf(enchantments, drawn)]++;
+            }
+
+            assertEquals(0, pooled[0]);
+            assertEquals(0, pooled[1]);
+            assertEquals(0, rejected[0]);
+            assertEquals(0, rejected[1]);
+            for (int j = 2; j < enchantments.length; j++)
+            {
+                double expected = (double) draws * weights[j] / 7;
+                assertTrue("Pool drew " + j + " " + pooled[j] + " times", Math.abs(pooled[j] - expected) < draws * 0.01);
+                assertTrue("Rejection drew " + j + " " + rejected[j] + " times", Math.abs(rejected[j] - expected) < draws * 0.01);
+            }
+        }
+        finally
+        {
+            for (CustomEnchantment enchantment : enchantments) EnchantmentAPI.unregisterCustomEnchantment(enchantment.name());
+        }
+    }
+
+    /**
+     * Pools run dry once everything is taken out
+     */
+    @Test
+    public void runsDry()
+    {
+        CustomEnchantment only = new DummyEnchantment("Pool Only");
+        EWeightedPool pool = new EWeightedPool(new CustomEnchantment[] { only }, new int[] { 3 });
+        assertEquals(only, pool.draw(new Random()));
+        pool.removeConflicts(new EConflictMatrix(Arrays.asList(only), 0), only);
+        assertTrue(pool.isEmpty());
+        assertNull(pool.draw(new Random()));
+    }
+
+    private static int indexOf(CustomEnchantment[] enchantments, CustomEnchantment enchantment)
+    {
+        for (int i = 0; i < enchantments.length; i++)
+        {
+            if (enchantments[i] == enchantment) return i;
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,84 @@
+package com.rit.sucy.service;
+
+import com.rit.sucy.CustomEnchantment;
+import com.rit.sucy.DummyEnchantment;
+import org.bukkit.ChatColor;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for EHiddenTag
+ */
+public class EHiddenTagTest
+{
+    private final CustomEnchantment lifeSteal = new DummyEnchantment("Life Steal");
+    private final CustomEnchantment lightning = new DummyEnchantment("Lightning");
+
+    private final EHiddenTag index = new EHiddenTag(Arrays.asList(lifeSteal, lightning));
+
+    /**
+     * Tagged lore can be decoded again
+     */
+    @Test
+    public void roundTrip()
+    {
+        String lore = tagged(lifeSteal, 12);
+        assertTrue(EHiddenTag.isTagged(lore));
+        assertSame(lifeSteal, index.match(lore));
+        assertEquals(12, EHiddenTag.levelOf(lore));
+        assertSame(lightning, index.match(tagged(lightning, 1)));
+    }
+
+    /**
+     * Tags are only color codes, so parsing by name still works
+     */
+    @Test
+    public void readableByName()
+    {
+        String lore = tagged(lifeSteal, 4);
+        assertEquals("Life Steal", ENameParser.parseName(lore));
+        assertEquals(4, ENameParser.parseLevel(lore));
+        assertEquals(lifeSteal.name(), ChatColor.stripColor(lore).substring(0, lifeSteal.name().length()));
+    }
+
+    /**
+     * Without tags enabled the plain format is written
+     */
+    @Test
+    public void disabled()
+    {
+        String lore = EHiddenTag.loreOf(lifeSteal, 2);
+        assertEquals(ChatColor.GRAY + "Life Steal II", lore);
+        assertFalse(EHiddenTag.isTagged(lore));
+        assertNull(index.match(lore));
+    }
+
+    /**
+     * Tags of enchantments that aren't in the index aren't matched
+     */
+    @Test
+    public void unknownEnchantment()
+    {
+        assertNull(index.match(tagged(new DummyEnchantment("Unknown"), 1)));
+    }
+
+    private static String tagged(CustomEnchantment enchantment, int level)
+    {
+        EHiddenTag.setEnabled(true);
+        try
+        {
+            return EHiddenTag.loreOf(enchantment, level);
+        }
+        finally
+        {
+            EHiddenTag.setEnabled(false);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.rit.sucy.service;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests for ELevelCurve
+ */
+public class ELevelCurveTest
+{
+    /**
+     * Threshold curves give the same levels as walking the thresholds
+     */
+    @Test
+    public void thresholds()
+    {
+        int[][] curves = { { 1, 5, 15, 25, 35 }, { 1, 8, 32 }, { 1 }, { 10, 10, 20 } };
+        for (int[] thresholds : curves)
+        {
+            ELevelCurve curve = ELevelCurve.fromThresholds(thresholds);
+            for (int exp = -5; exp <= ELevelCurve.MAX_EXP + 5; exp++)
+            {
+                assertEquals("Exp " + exp, legacyLevel(thresholds, exp), curve.levelFor(exp));
+            }
+            assertEquals(thresholds.length, curve.getMaxLevel());
+        }
+    }
+
+    /**
+     * Linear curves go up one level per step
+     */
+    @Test
+    public void linear()
+    {
+        ELevelCurve curve = ELevelCurve.linear(5, 10, 3);
+        assertEquals(1, curve.levelFor(0));
+        assertEquals(1, curve.levelFor(14));
+        assertEquals(2, curve.levelFor(15));
+        assertEquals(3, curve.levelFor(25));
+        assertEquals(3, curve.levelFor(1000));
+    }
+
+    /**
+     * The whole curve can be read at once
+     */
+    @Test
+    public void toArray()
+    {
+        int[] levels = ELevelCurve.fromThresholds(1, 3).toArray();
+        assertEquals(ELevelCurve.MAX_EXP + 1, levels.length);
+        assertArrayEquals(new int[] { 1, 1, 1, 2, 2 }, Arrays.copyOf(levels, 5));
+    }
+
+    /**
+     * Thresholds out of order are rejected
+     */
+    @Test (expected = IllegalArgumentException.class)
+    public void unordered()
+    {
+        ELevelCurve.fromThresholds(5, 1);
+    }
+
+    /**
+     * How VanillaEnchantment used to resolve levels
+     */
+    private static int legacyLevel(int[] expLevels, int expLevel)
+    {
+        for (int i = expLevels.length - 1; i >= 0; i--)
+        {
+            if (expLevel >= expLevels[i]) return i + 1;
+        }
+        return 1;
+    }
+}
@@ -0,0 +1,51 @@
+package com.rit.sucy.service;
+
+import com.rit.sucy.CustomEnchantment;
+import com.rit.sucy.DummyEnchantment;
+import com.rit.sucy.EnchantmentAPI;
+import com.rit.sucy.EnchantmentSet;
+import org.bukkit.ChatColor;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests for ELoreCache
+ */
+public class ELoreCacheTest
+{
+    /**
+     * Tagged and plain lines are both read with their levels, other lines are skipped
+     */
+    @Test
+    public void parse()
+    {
+        CustomEnchantment tagged = new DummyEnchantment("Lore Tagged");
+        CustomEnchantment plain = new DummyEnchantment("Lore Plain");
+        EnchantmentAPI.registerCustomEnchantment(tagged);
+        EnchantmentAPI.registerCustomEnchantment(plain);
+        EHiddenTag.setEnabled(true);
+        try
+        {
+            String taggedLine = EHiddenTag.loreOf(tagged, 3);
+            EHiddenTag.setEnabled(false);
+            EnchantmentSet set = ELoreCache.parse(Arrays.asList(
+                    taggedLine,
+                    ChatColor.GRAY + "Lore Plain II",
+                    ChatColor.GRAY + "Just some lore",
+                    ChatColor.GRAY + "Lore Unknown IV"));
+
+            assertEquals(2, set.size());
+            assertEquals(3, set.levelOf(tagged));
+            assertEquals(2, set.levelOf(plain));
+        }
+        finally
+        {
+            EHiddenTag.setEnabled(false);
+            EnchantmentAPI.unregisterCustomEnchantment(tagged.name());
+            EnchantmentAPI.unregisterCustomEnchantment(plain.name());
+        }
+    }
+}
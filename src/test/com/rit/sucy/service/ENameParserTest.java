@@ -0,0 +1,113 @@
+package com.rit.sucy.service;
+
+import org.bukkit.ChatColor;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Tests for ENameParser
+ */
+public class ENameParserTest
+{
+    /**
+     * Lore lines that show up on items
+     */
+    private static final String[] LORE = {
+            ChatColor.GRAY + "Life Steal IV",
+            ChatColor.GRAY + "Lightning I",
+            "Plain Name III",
+            ChatColor.GOLD + "Multi " + ChatColor.BOLD + "Color" + ChatColor.RESET + " Name II",
+            "Double  Space V",
+            "Trailing Space X  ",
+            " IX",
+            "Foo  ",
+            "NoSpace",
+            "Sword X-ray",
+            "Broken " + ChatColor.COLOR_CHAR,
+            ChatColor.COLOR_CHAR + "" + ChatColor.COLOR_CHAR + "a Name I",
+            ChatColor.GRAY + "Colored Level " + ChatColor.RED + "II",
+            ""
+    };
+
+    /**
+     * The parser has to give the same results as the old split based one
+     */
+    @Test
+    public void knownLore_matchesLegacy()
+    {
+        for (String lore : LORE)
+        {
+            assertEquals(lore, legacyName(lore), ENameParser.parseName(lore));
+            assertEquals(lore, legacyLevel(lore), ENameParser.parseLevel(lore));
+        }
+    }
+
+    /**
+     * Random lines made of spaces, color codes and numerals
+     */
+    @Test
+    public void randomLore_matchesLegacy()
+    {
+        char[] alphabet = {' ', ' ', 'a', 'B', ChatColor.COLOR_CHAR, '7', 'k', 'I', 'V', 'X', '-'};
+        Random random = new Random(42);
+        for (int n = 0; n < 20000; n++)
+        {
+            char[] chars = new char[random.nextInt(12)];
+            for (int i = 0; i < chars.length; i++)
+                chars[i] = alphabet[random.nextInt(alphabet.length)];
+            String lore = new String(chars);
+
+            // The old parser crashed on lines made of spaces only
+            if (lore.trim().isEmpty() && lore.contains(" ")) continue;
+
+            assertEquals(lore, legacyName(lore), ENameParser.parseName(lore));
+            assertEquals(lore, legacyLevel(lore), ENameParser.parseLevel(lore));
+        }
+    }
+
+    /**
+     * Lines made of spaces only don't describe an enchantment
+     */
+    @Test
+    public void onlySpaces()
+    {
+        assertNull(ENameParser.parseName("   "));
+        assertEquals(0, ENameParser.parseLevel("   "));
+    }
+
+    /**
+     * Previous implementation of ENameParser.parseName
+     */
+    private static String legacyName(String lore)
+    {
+        if (!lore.contains(" ")) return null;
+
+        String[] pieces = lore.split(" ");
+
+        String name = "";
+        for (int i = 0; i < pieces.length - 1; i++) {
+            name += pieces[i] + (i < pieces.length - 2 ? " " : "");
+        }
+        name = ChatColor.stripColor(name);
+        return name;
+    }
+
+    /**
+     * Previous implementation of ENameParser.parseLevel, except
+     * that malformed numerals like "IIII" are rejected now
+     */
+    private static int legacyLevel(String lore)
+    {
+        if (!lore.contains(" ")) return 0;
+
+        String[] pieces = lore.split(" ");
+        String numeral = pieces[pieces.length - 1];
+        int level = ERomanNumeral.getValueOf(numeral);
+        if (level > 0 && !ERomanNumeral.numeralOf(level).equalsIgnoreCase(numeral)) return 0;
+        return level;
+    }
+}
@@ -0,0 +1,51 @@
+package com.rit.sucy.service;
+
+import com.rit.sucy.CustomEnchantment;
+import com.rit.sucy.DummyEnchantment;
+import org.bukkit.ChatColor;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Tests for ENameTrie
+ */
+public class ENameTrieTest
+{
+    private final CustomEnchantment life = new DummyEnchantment("Life");
+    private final CustomEnchantment lifeSteal = new DummyEnchantment("Life Steal");
+    private final CustomEnchantment lightning = new DummyEnchantment("Lightning");
+
+    private final ENameTrie trie = new ENameTrie(Arrays.asList(life, lifeSteal, lightning));
+
+    /**
+     * Names are found no matter their case or colors
+     */
+    @Test
+    public void match()
+    {
+        assertSame(lifeSteal, match(ChatColor.GRAY + "Life Steal IV"));
+        assertSame(life, match(ChatColor.GRAY + "LIFE II"));
+        assertSame(lightning, match("light" + ChatColor.BOLD + "ning I"));
+    }
+
+    /**
+     * Prefixes and unknown names don't match
+     */
+    @Test
+    public void noMatch()
+    {
+        assertNull(match("Lif I"));
+        assertNull(match("Life Stealing I"));
+        assertNull(match("Sword X-ray"));
+        assertNull(match(ChatColor.COLOR_CHAR + "Life I"));
+    }
+
+    private CustomEnchantment match(String lore)
+    {
+        return trie.match(lore, ENameParser.levelStart(lore) - 1);
+    }
+}